@@ -0,0 +1,100 @@
+package com.example.digigoods.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Data source configuration sending read-only transactions to a replica.
+ *
+ * <p>Only active when {@code datasource.replica.enabled} is set; otherwise the single data source
+ * configured under {@code spring.datasource} serves everything.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+  /**
+   * Connection pool of the primary database, configured under {@code spring.datasource}.
+   *
+   * @param properties the primary data source properties
+   * @return primary data source
+   */
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+        .type(HikariDataSource.class)
+        .build();
+    dataSource.setPoolName("primary");
+    return dataSource;
+  }
+
+  /**
+   * Connection pool of the replica, configured under {@code datasource.replica}.
+   *
+   * @param url the JDBC URL of the replica
+   * @param username the username, the primary's by default
+   * @param password the password, the primary's by default
+   * @return replica data source
+   */
+  @Bean
+  @ConfigurationProperties("datasource.replica.hikari")
+  public HikariDataSource replicaDataSource(
+      @Value("${datasource.replica.url}") String url,
+      @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+      @Value("${datasource.replica.password:${spring.datasource.password:}}") String password) {
+    HikariDataSource dataSource = DataSourceBuilder.create()
+        .type(HikariDataSource.class)
+        .url(url)
+        .username(username)
+        .password(password)
+        .build();
+    dataSource.setPoolName("replica");
+    dataSource.setReadOnly(true);
+    return dataSource;
+  }
+
+  /**
+   * Data source routing each connection to the primary or the replica.
+   *
+   * @param primary the primary data source
+   * @param replica the replica data source
+   * @param lagQuery the query returning the replication lag of the replica in seconds
+   * @param maxLag the lag beyond which reads go to the primary
+   * @param checkInterval the delay between two lag checks
+   * @return routing data source
+   */
+  @Bean
+  public ReadWriteRoutingDataSource routingDataSource(
+      @Qualifier("primaryDataSource") DataSource primary,
+      @Qualifier("replicaDataSource") DataSource replica,
+      @Value("${datasource.replica.lag-query}") String lagQuery,
+      @Value("${datasource.replica.max-lag:5s}") Duration maxLag,
+      @Value("${datasource.replica.check-interval:1s}") Duration checkInterval) {
+    return new ReadWriteRoutingDataSource(primary, replica, lagQuery, maxLag, checkInterval);
+  }
+
+  /**
+   * Data source used by JPA, JDBC and Liquibase. Connections are only taken once a statement
+   * runs, by which time the transaction is known to be read-only or not.
+   *
+   * @param routingDataSource the routing data source
+   * @return data source
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+}
@@ -0,0 +1,162 @@
+package com.example.digigoods.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data source sending the work of read-only transactions to a replica and everything else to the
+ * primary.
+ *
+ * <p>The replica is only used while its replication lag, measured periodically with the lag
+ * query, stays within the maximum lag. A replica that cannot be reached is left out until the next
+ * successful check, and its connections are taken from the primary meanwhile.
+ *
+ * <p>The routing decision is made when a connection is taken, so this data source must be wrapped
+ * in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} for the
+ * read-only flag of the transaction to be known by then.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource
+    implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+  /**
+   * Target of a connection.
+   */
+  enum Route {
+    PRIMARY,
+    REPLICA
+  }
+
+  private final DataSource primary;
+  private final DataSource replica;
+  private final String lagQuery;
+  private final Duration maxLag;
+  private ScheduledExecutorService scheduler;
+
+  private volatile boolean replicaUsable;
+
+  /**
+   * Create the routing data source and start checking the replica.
+   *
+   * @param primary the primary data source
+   * @param replica the replica data source
+   * @param lagQuery the query returning the replication lag of the replica in seconds
+   * @param maxLag the lag beyond which reads go to the primary
+   * @param checkInterval the delay between two lag checks
+   */
+  public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, String lagQuery,
+                                    Duration maxLag, Duration checkInterval) {
+    this(primary, replica, lagQuery, maxLag);
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "replica-lag-check");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(this::checkReplica, 0, checkInterval.toMillis(),
+        TimeUnit.MILLISECONDS);
+  }
+
+  ReadWriteRoutingDataSource(DataSource primary, DataSource replica, String lagQuery,
+                             Duration maxLag) {
+    this.primary = primary;
+    this.replica = replica;
+    this.lagQuery = lagQuery;
+    this.maxLag = maxLag;
+    setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return replicaUsable && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        ? Route.REPLICA : Route.PRIMARY;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (determineCurrentLookupKey() == Route.REPLICA) {
+      try {
+        return replica.getConnection();
+      } catch (SQLException e) {
+        replicaUnusable("cannot be reached", e);
+      }
+    }
+    return primary.getConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    if (determineCurrentLookupKey() == Route.REPLICA) {
+      try {
+        return replica.getConnection(username, password);
+      } catch (SQLException e) {
+        replicaUnusable("cannot be reached", e);
+      }
+    }
+    return primary.getConnection(username, password);
+  }
+
+  /**
+   * Whether reads currently go to the replica.
+   *
+   * @return true if the replica was reachable and within the maximum lag when last checked
+   */
+  public boolean isReplicaUsable() {
+    return replicaUsable;
+  }
+
+  /**
+   * Measure the lag of the replica and decide whether it may serve reads until the next check.
+   */
+  void checkReplica() {
+    double lagSeconds;
+    try (Connection connection = replica.getConnection();
+         Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery(lagQuery)) {
+      lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+    } catch (SQLException e) {
+      replicaUnusable("cannot be checked", e);
+      return;
+    }
+
+    if (lagSeconds * 1000 > maxLag.toMillis()) {
+      if (replicaUsable) {
+        log.warn("Replica is {}s behind the primary, sending reads to the primary", lagSeconds);
+      }
+      replicaUsable = false;
+    } else {
+      if (!replicaUsable) {
+        log.info("Replica is {}s behind the primary, sending reads to the replica", lagSeconds);
+      }
+      replicaUsable = true;
+    }
+  }
+
+  private void replicaUnusable(String reason, SQLException e) {
+    if (replicaUsable) {
+      log.warn("Replica {}, sending reads to the primary", reason, e);
+    }
+    replicaUsable = false;
+  }
+
+  @Override
+  public void close() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+}
@@ -1,7 +1,11 @@
 package com.example.digigoods.config;
 
+import com.example.digigoods.security.BoundedPasswordEncoder;
 import com.example.digigoods.security.JwtAuthenticationEntryPoint;
 import com.example.digigoods.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -30,9 +34,27 @@ public class SecurityConfig {
     this.jwtAuthenticationFilter = jwtAuthenticationFilter;
   }
 
+  /**
+   * Password encoder hashing with BCrypt on a dedicated, bounded pool.
+   *
+   * @param strength the BCrypt cost factor; stored hashes with a lower cost are upgraded on login
+   * @param poolSize the number of hashing threads, or 0 for half the available processors
+   * @param queueCapacity the number of hashing requests allowed to wait for a thread
+   * @param retryAfter the retry delay suggested to clients when the queue is full
+   * @param meterRegistry the registry the pool and timing metrics are published to
+   * @return password encoder
+   */
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public PasswordEncoder passwordEncoder(
+      @Value("${auth.password.bcrypt-strength:10}") int strength,
+      @Value("${auth.password.pool-size:0}") int poolSize,
+      @Value("${auth.password.queue-capacity:64}") int queueCapacity,
+      @Value("${auth.password.retry-after:2s}") Duration retryAfter,
+      MeterRegistry meterRegistry) {
+    int threads = poolSize > 0 ? poolSize
+        : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads,
+        queueCapacity, retryAfter, meterRegistry);
   }
 
   @Bean
@@ -47,7 +69,7 @@ public class SecurityConfig {
         .authorizeHttpRequests(authz -> authz
             .requestMatchers("/auth/**").permitAll()
             .requestMatchers("/actuator/**").permitAll()
-            .requestMatchers("/products").permitAll()
+            .requestMatchers("/products/**").permitAll()
             .requestMatchers("/discounts").permitAll()
             .anyRequest().authenticated()
         )
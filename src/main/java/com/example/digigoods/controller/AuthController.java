@@ -2,7 +2,11 @@ package com.example.digigoods.controller;
 
 import com.example.digigoods.dto.LoginRequest;
 import com.example.digigoods.dto.LoginResponse;
+import com.example.digigoods.exception.MissingJwtTokenException;
+import com.example.digigoods.security.JwtAuthenticationFilter;
 import com.example.digigoods.service.AuthService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -34,4 +38,20 @@ public class AuthController {
     LoginResponse response = authService.login(loginRequest);
     return ResponseEntity.ok(response);
   }
+
+  /**
+   * Logout endpoint, revoking the bearer token of the request.
+   *
+   * @param request the HTTP servlet request
+   * @return empty response
+   */
+  @PostMapping("/logout")
+  public ResponseEntity<Void> logout(HttpServletRequest request) {
+    Object claims = request.getAttribute(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE);
+    if (claims == null) {
+      throw new MissingJwtTokenException();
+    }
+    authService.logout((Claims) claims);
+    return ResponseEntity.noContent().build();
+  }
 }
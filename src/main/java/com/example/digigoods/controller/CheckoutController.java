@@ -1,17 +1,30 @@
 package com.example.digigoods.controller;
 
 import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderPage;
+import com.example.digigoods.dto.OrderPageRequest;
 import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.dto.OrderStatusResponse;
+import com.example.digigoods.dto.QuoteRequest;
+import com.example.digigoods.dto.QuoteResponse;
 import com.example.digigoods.exception.MissingJwtTokenException;
+import com.example.digigoods.security.JwtAuthenticationFilter;
 import com.example.digigoods.service.CheckoutService;
 import com.example.digigoods.service.JwtService;
+import com.example.digigoods.service.OrderHistoryService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.net.URI;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /**
  * Controller for checkout endpoints.
@@ -20,34 +33,117 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/orders")
 public class CheckoutController {
 
+  private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
   private final CheckoutService checkoutService;
+  private final OrderHistoryService orderHistoryService;
   private final JwtService jwtService;
 
-  public CheckoutController(CheckoutService checkoutService, JwtService jwtService) {
+  /**
+   * Create the checkout controller.
+   *
+   * @param checkoutService the checkout service
+   * @param orderHistoryService the order history service
+   * @param jwtService the JWT service
+   */
+  public CheckoutController(CheckoutService checkoutService,
+                            OrderHistoryService orderHistoryService,
+                            JwtService jwtService) {
     this.checkoutService = checkoutService;
+    this.orderHistoryService = orderHistoryService;
     this.jwtService = jwtService;
   }
 
   /**
    * Create order endpoint.
    *
+   * <p>Requests carrying an {@code Idempotency-Key} header create at most one order per key; a
+   * retry with the same key is answered with the response of the first request.
+   *
+   * <p>When asynchronous checkout is enabled, requests without a key are answered with
+   * {@code 202 Accepted} once their stock is taken, and the status of the order can be followed
+   * at the returned location.
+   *
    * @param checkoutRequest the checkout request
+   * @param idempotencyKey the idempotency key, if any
    * @param request the HTTP servlet request
-   * @return order response
+   * @return order response, or order status if the order is written asynchronously
    */
   @PostMapping
-  public ResponseEntity<OrderResponse> createOrder(
+  public ResponseEntity<?> createOrder(
       @Valid @RequestBody CheckoutRequest checkoutRequest,
+      @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
       HttpServletRequest request) {
+    Long authenticatedUserId = extractAuthenticatedUserId(request);
+
+    if (idempotencyKey == null && checkoutService.isAsync()) {
+      OrderStatusResponse status = checkoutService.submitCheckout(checkoutRequest,
+          authenticatedUserId);
+      URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+          .path("/{orderId}")
+          .buildAndExpand(status.getOrderId())
+          .toUri();
+      return ResponseEntity.accepted().location(location).body(status);
+    }
+
+    OrderResponse response = checkoutService.processCheckout(checkoutRequest, authenticatedUserId,
+        idempotencyKey);
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Quote endpoint, pricing a cart as a checkout would without placing an order.
+   *
+   * @param quoteRequest the quote request
+   * @return priced lines and discounts with the totals
+   */
+  @PostMapping("/quote")
+  public ResponseEntity<QuoteResponse> quote(@Valid @RequestBody QuoteRequest quoteRequest) {
+    return ResponseEntity.ok(checkoutService.quote(quoteRequest));
+  }
+
+  /**
+   * Get order history endpoint, listing one page of the authenticated user's orders, newest
+   * first.
+   *
+   * @param pageRequest the page request
+   * @param request the HTTP servlet request
+   * @return page of orders with the cursor of the next page
+   */
+  @GetMapping
+  public ResponseEntity<OrderPage> getOrderHistory(@Valid OrderPageRequest pageRequest,
+                                                   HttpServletRequest request) {
+    Long authenticatedUserId = extractAuthenticatedUserId(request);
+    return ResponseEntity.ok(orderHistoryService.getOrderHistory(authenticatedUserId,
+        pageRequest));
+  }
+
+  /**
+   * Get order status endpoint.
+   *
+   * @param orderId the order ID
+   * @param request the HTTP servlet request
+   * @return order status
+   */
+  @GetMapping("/{orderId}")
+  public ResponseEntity<OrderStatusResponse> getOrderStatus(@PathVariable Long orderId,
+                                                            HttpServletRequest request) {
+    Long authenticatedUserId = extractAuthenticatedUserId(request);
+    return ResponseEntity.ok(checkoutService.getOrderStatus(orderId, authenticatedUserId));
+  }
+
+  private Long extractAuthenticatedUserId(HttpServletRequest request) {
+    // Reuse the claims verified by the authentication filter for this request
+    if (request.getAttribute(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE) instanceof Claims claims) {
+      return jwtService.extractUserId(claims);
+    }
+
     // Extract user ID from JWT token
     String token = extractTokenFromRequest(request);
     if (token == null) {
       throw new MissingJwtTokenException();
     }
-    Long authenticatedUserId = jwtService.extractUserId(token);
-
-    OrderResponse response = checkoutService.processCheckout(checkoutRequest, authenticatedUserId);
-    return ResponseEntity.ok(response);
+    return jwtService.extractUserId(token);
   }
 
   private String extractTokenFromRequest(HttpServletRequest request) {
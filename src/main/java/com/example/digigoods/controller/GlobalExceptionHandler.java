@@ -2,13 +2,19 @@ package com.example.digigoods.controller;
 
 import com.example.digigoods.dto.ErrorResponse;
 import com.example.digigoods.exception.ExcessiveDiscountException;
+import com.example.digigoods.exception.IdempotencyKeyReusedException;
 import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.InvalidCursorException;
 import com.example.digigoods.exception.InvalidDiscountException;
+import com.example.digigoods.exception.InvalidIdempotencyKeyException;
 import com.example.digigoods.exception.MissingJwtTokenException;
+import com.example.digigoods.exception.OrderNotFoundException;
 import com.example.digigoods.exception.ProductNotFoundException;
+import com.example.digigoods.exception.ServiceUnavailableException;
 import com.example.digigoods.exception.UnauthorizedAccessException;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.stream.Collectors;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -23,9 +29,9 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
-  @ExceptionHandler(ProductNotFoundException.class)
-  public ResponseEntity<ErrorResponse> handleProductNotFoundException(
-      ProductNotFoundException ex, HttpServletRequest request) {
+  @ExceptionHandler({ProductNotFoundException.class, OrderNotFoundException.class})
+  public ResponseEntity<ErrorResponse> handleNotFoundExceptions(
+      RuntimeException ex, HttpServletRequest request) {
     ErrorResponse error = new ErrorResponse(
         HttpStatus.NOT_FOUND.value(),
         "Not Found",
@@ -36,7 +42,8 @@ public class GlobalExceptionHandler {
   }
 
   @ExceptionHandler({InvalidDiscountException.class, ExcessiveDiscountException.class,
-                     InsufficientStockException.class})
+                     InsufficientStockException.class, InvalidCursorException.class,
+                     InvalidIdempotencyKeyException.class})
   public ResponseEntity<ErrorResponse> handleBadRequestExceptions(
       RuntimeException ex, HttpServletRequest request) {
     ErrorResponse error = new ErrorResponse(
@@ -48,6 +55,18 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
   }
 
+  @ExceptionHandler(IdempotencyKeyReusedException.class)
+  public ResponseEntity<ErrorResponse> handleIdempotencyKeyReusedException(
+      IdempotencyKeyReusedException ex, HttpServletRequest request) {
+    ErrorResponse error = new ErrorResponse(
+        HttpStatus.UNPROCESSABLE_ENTITY.value(),
+        "Unprocessable Entity",
+        ex.getMessage(),
+        request.getRequestURI()
+    );
+    return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(error);
+  }
+
   @ExceptionHandler(UnauthorizedAccessException.class)
   public ResponseEntity<ErrorResponse> handleUnauthorizedAccessException(
       UnauthorizedAccessException ex, HttpServletRequest request) {
@@ -84,6 +103,21 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
   }
 
+  @ExceptionHandler(ServiceUnavailableException.class)
+  public ResponseEntity<ErrorResponse> handleServiceUnavailableException(
+      ServiceUnavailableException ex, HttpServletRequest request) {
+    ErrorResponse error = new ErrorResponse(
+        HttpStatus.SERVICE_UNAVAILABLE.value(),
+        "Service Unavailable",
+        ex.getMessage(),
+        request.getRequestURI()
+    );
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER,
+            String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+        .body(error);
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<ErrorResponse> handleValidationExceptions(
       MethodArgumentNotValidException ex, HttpServletRequest request) {
@@ -1,11 +1,24 @@
 package com.example.digigoods.controller;
 
-import com.example.digigoods.model.Product;
+import com.example.digigoods.dto.ProductPage;
+import com.example.digigoods.dto.ProductPageRequest;
+import com.example.digigoods.service.ProductCatalogService;
+import com.example.digigoods.service.ProductCatalogService.CatalogSnapshot;
+import com.example.digigoods.service.ProductExportService;
 import com.example.digigoods.service.ProductService;
-import java.util.List;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -15,20 +28,81 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/products")
 public class ProductController {
 
+  private final ProductCatalogService productCatalogService;
   private final ProductService productService;
+  private final ProductExportService productExportService;
 
-  public ProductController(ProductService productService) {
+  /**
+   * Create the product controller.
+   *
+   * @param productCatalogService the catalog snapshot service
+   * @param productService the product service
+   * @param productExportService the catalog export service
+   */
+  public ProductController(ProductCatalogService productCatalogService,
+                           ProductService productService,
+                           ProductExportService productExportService) {
+    this.productCatalogService = productCatalogService;
     this.productService = productService;
+    this.productExportService = productExportService;
   }
 
   /**
    * Get all products endpoint.
    *
+   * <p>Serves the pre-serialized catalog snapshot with a strong ETag. A request whose
+   * {@code If-None-Match} matches the current snapshot gets a 304 without a body.
+   *
    * @return list of all products
    */
   @GetMapping
-  public ResponseEntity<List<Product>> getAllProducts() {
-    List<Product> products = productService.getAllProducts();
-    return ResponseEntity.ok(products);
+  public ResponseEntity<byte[]> getAllProducts() {
+    CatalogSnapshot snapshot = productCatalogService.getSnapshot();
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .cacheControl(CacheControl.noCache())
+        .eTag(snapshot.etag())
+        .body(snapshot.body());
+  }
+
+  /**
+   * Get one page of products endpoint, with optional price, name prefix and stock filters.
+   *
+   * @param request the page request
+   * @return page of products with the cursor of the next page
+   */
+  @GetMapping("/page")
+  public ResponseEntity<ProductPage> getProductPage(@Valid ProductPageRequest request) {
+    return ResponseEntity.ok(productService.getProductPage(request));
+  }
+
+  /**
+   * Export all products endpoint, streamed as newline-delimited JSON in ID order.
+   *
+   * <p>An interrupted export can be resumed by passing the ID of the last product received as
+   * {@code after}. The response is gzip-compressed when the client accepts it.
+   *
+   * @param after the ID to resume after
+   * @param acceptEncoding the accepted content encodings
+   * @param response the HTTP response the products are written to
+   * @throws IOException if writing the response fails
+   */
+  @GetMapping("/export")
+  public void exportProducts(@RequestParam(defaultValue = "0") long after,
+                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                             String acceptEncoding,
+                             HttpServletResponse response) throws IOException {
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    response.setCharacterEncoding("UTF-8");
+    response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+    if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      try (OutputStream out = new GZIPOutputStream(response.getOutputStream())) {
+        productExportService.exportProducts(after, out);
+      }
+    } else {
+      productExportService.exportProducts(after, response.getOutputStream());
+    }
   }
 }
@@ -0,0 +1,23 @@
+package com.example.digigoods.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one line of a cart: a product and the quantity ordered.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartLine {
+
+  @NotNull(message = "Product ID is required")
+  private Long productId;
+
+  @NotNull(message = "Quantity is required")
+  @Positive(message = "Quantity must be at least 1")
+  private Integer quantity;
+}
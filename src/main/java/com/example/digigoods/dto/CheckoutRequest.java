@@ -1,6 +1,8 @@
 package com.example.digigoods.dto;
 
-import jakarta.validation.constraints.NotEmpty;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotNull;
 import java.util.List;
 import lombok.AllArgsConstructor;
@@ -9,6 +11,9 @@ import lombok.NoArgsConstructor;
 
 /**
  * DTO for checkout request.
+ *
+ * <p>The cart is given as {@code lines} of product and quantity, as {@code productIds} repeating
+ * an ID once per unit ordered, or both; quantities of the same product are added up.
  */
 @Data
 @NoArgsConstructor
@@ -18,8 +23,27 @@ public class CheckoutRequest {
   @NotNull(message = "User ID is required")
   private Long userId;
 
-  @NotEmpty(message = "Product IDs cannot be empty")
-  private List<Long> productIds;
+  private List<@NotNull(message = "Product IDs cannot contain null") Long> productIds;
 
-  private List<String> discountCodes;
+  private List<@NotNull(message = "Discount codes cannot contain null") String> discountCodes;
+
+  @Valid
+  private List<@NotNull(message = "Cart lines cannot contain null") CartLine> lines;
+
+  /**
+   * Create a checkout request with a cart given as repeated product IDs.
+   *
+   * @param userId the ID of the ordering user
+   * @param productIds the product IDs, once per unit ordered
+   * @param discountCodes the discount codes to apply
+   */
+  public CheckoutRequest(Long userId, List<Long> productIds, List<String> discountCodes) {
+    this(userId, productIds, discountCodes, null);
+  }
+
+  @JsonIgnore
+  @AssertTrue(message = "Product IDs cannot be empty")
+  public boolean isCartPresent() {
+    return (productIds != null && !productIds.isEmpty()) || (lines != null && !lines.isEmpty());
+  }
 }
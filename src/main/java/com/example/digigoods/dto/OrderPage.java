@@ -0,0 +1,22 @@
+package com.example.digigoods.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one page of a user's orders, newest first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPage {
+
+  private List<OrderSummary> items;
+
+  /**
+   * Cursor for the next page, or {@code null} if this is the last page.
+   */
+  private String nextCursor;
+}
@@ -0,0 +1,22 @@
+package com.example.digigoods.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for an order history page request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageRequest {
+
+  private String cursor;
+
+  @Min(value = 1, message = "Limit must be at least 1")
+  @Max(value = 500, message = "Limit must be at most 500")
+  private Integer limit;
+}
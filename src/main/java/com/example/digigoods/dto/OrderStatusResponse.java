@@ -0,0 +1,20 @@
+package com.example.digigoods.dto;
+
+import com.example.digigoods.model.OrderStatus;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the processing status of an order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusResponse {
+
+  private Long orderId;
+  private OrderStatus status;
+  private BigDecimal finalPrice;
+}
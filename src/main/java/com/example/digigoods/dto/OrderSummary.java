@@ -0,0 +1,21 @@
+package com.example.digigoods.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for an order in a user's order history, read without its products or discounts.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+
+  private Long id;
+  private LocalDateTime orderDate;
+  private BigDecimal originalSubtotal;
+  private BigDecimal finalPrice;
+}
@@ -0,0 +1,23 @@
+package com.example.digigoods.dto;
+
+import com.example.digigoods.model.Product;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one page of products, ordered by ID.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage {
+
+  private List<Product> items;
+
+  /**
+   * Cursor for the next page, or {@code null} if this is the last page.
+   */
+  private String nextCursor;
+}
@@ -0,0 +1,34 @@
+package com.example.digigoods.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a product page request. Filters must be repeated with every cursor of the same listing.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageRequest {
+
+  private String cursor;
+
+  @Min(value = 1, message = "Limit must be at least 1")
+  @Max(value = 500, message = "Limit must be at most 500")
+  private Integer limit;
+
+  @PositiveOrZero(message = "Minimum price cannot be negative")
+  private BigDecimal minPrice;
+
+  @PositiveOrZero(message = "Maximum price cannot be negative")
+  private BigDecimal maxPrice;
+
+  private String namePrefix;
+
+  private Boolean inStock;
+}
@@ -0,0 +1,25 @@
+package com.example.digigoods.dto;
+
+import com.example.digigoods.model.DiscountType;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one discount applied in a quote.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteDiscount {
+
+  private String code;
+  private DiscountType type;
+  private BigDecimal percentage;
+
+  /**
+   * Amount taken off the order by this discount.
+   */
+  private BigDecimal amount;
+}
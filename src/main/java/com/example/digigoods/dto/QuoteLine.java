@@ -0,0 +1,24 @@
+package com.example.digigoods.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one priced line of a quote.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteLine {
+
+  private Long productId;
+  private Integer quantity;
+  private BigDecimal unitPrice;
+
+  /**
+   * Price of the line after product-specific discounts.
+   */
+  private BigDecimal linePrice;
+}
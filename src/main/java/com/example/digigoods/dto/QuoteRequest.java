@@ -0,0 +1,32 @@
+package com.example.digigoods.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for price quote request. The cart is given as in {@link CheckoutRequest}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteRequest {
+
+  private List<@NotNull(message = "Product IDs cannot contain null") Long> productIds;
+
+  private List<@NotNull(message = "Discount codes cannot contain null") String> discountCodes;
+
+  @Valid
+  private List<@NotNull(message = "Cart lines cannot contain null") CartLine> lines;
+
+  @JsonIgnore
+  @AssertTrue(message = "Product IDs cannot be empty")
+  public boolean isCartPresent() {
+    return (productIds != null && !productIds.isEmpty()) || (lines != null && !lines.isEmpty());
+  }
+}
@@ -0,0 +1,21 @@
+package com.example.digigoods.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for price quote response.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteResponse {
+
+  private List<QuoteLine> lines;
+  private List<QuoteDiscount> discounts;
+  private BigDecimal originalSubtotal;
+  private BigDecimal finalPrice;
+}
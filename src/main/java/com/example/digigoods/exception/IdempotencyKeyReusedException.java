@@ -0,0 +1,11 @@
+package com.example.digigoods.exception;
+
+/**
+ * Exception thrown when an idempotency key is submitted again with a different request.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+  public IdempotencyKeyReusedException(String idempotencyKey) {
+    super("Idempotency key '" + idempotencyKey + "' was already used with a different request");
+  }
+}
@@ -2,14 +2,17 @@ package com.example.digigoods.exception;
 
 /**
  * Exception thrown when a discount is invalid.
+ *
+ * <p>Invalid codes are an expected client error, and a flood of guessed codes must stay cheap to
+ * reject, so this exception does not capture a stack trace.
  */
 public class InvalidDiscountException extends RuntimeException {
 
   public InvalidDiscountException(String message) {
-    super(message);
+    super(message, null, false, false);
   }
 
   public InvalidDiscountException(String discountCode, String reason) {
-    super("Invalid discount code '" + discountCode + "': " + reason);
+    this("Invalid discount code '" + discountCode + "': " + reason);
   }
 }
@@ -0,0 +1,11 @@
+package com.example.digigoods.exception;
+
+/**
+ * Exception thrown when an order is not found for the requesting user.
+ */
+public class OrderNotFoundException extends RuntimeException {
+
+  public OrderNotFoundException(Long orderId) {
+    super("Order not found with ID: " + orderId);
+  }
+}
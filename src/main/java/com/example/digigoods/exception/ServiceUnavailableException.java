@@ -0,0 +1,24 @@
+package com.example.digigoods.exception;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a request is shed because the server is temporarily overloaded.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+  private final Duration retryAfter;
+
+  public ServiceUnavailableException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+
+  public ServiceUnavailableException(Duration retryAfter) {
+    this("Server is busy, please retry later", retryAfter);
+  }
+
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
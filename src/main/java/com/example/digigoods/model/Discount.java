@@ -1,7 +1,9 @@
 package com.example.digigoods.model;
 
+import com.example.digigoods.service.DiscountRegistryInvalidationListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
@@ -10,6 +12,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -24,13 +27,16 @@ import lombok.NoArgsConstructor;
  */
 @Entity
 @Table(name = "discounts")
+@EntityListeners(DiscountRegistryInvalidationListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Discount {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "discounts_seq")
+  @SequenceGenerator(name = "discounts_seq", sequenceName = "discounts_seq",
+      allocationSize = 50)
   private Long id;
 
   @Column(nullable = false, unique = true)
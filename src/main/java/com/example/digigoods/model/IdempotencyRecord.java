@@ -0,0 +1,62 @@
+package com.example.digigoods.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Idempotency record entity holding the outcome of a checkout submitted with an idempotency key.
+ * The user and order are kept by ID only, as a replay never needs to load them. The hash of the
+ * request tells a retry apart from a different request reusing the key.
+ */
+@Entity
+@Table(name = "idempotency_keys", uniqueConstraints = @UniqueConstraint(
+    name = "uk_idempotency_keys_user_key", columnNames = {"user_id", "idempotency_key"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_keys_seq")
+  @SequenceGenerator(name = "idempotency_keys_seq", sequenceName = "idempotency_keys_seq",
+      allocationSize = 50)
+  private Long id;
+
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+
+  @Column(name = "idempotency_key", nullable = false)
+  private String idempotencyKey;
+
+  @Column(name = "request_hash", length = 64)
+  private String requestHash;
+
+  @Column(name = "order_id", nullable = false)
+  private Long orderId;
+
+  @Column(nullable = false)
+  private String message;
+
+  @Column(name = "final_price", nullable = false, precision = 10, scale = 2)
+  private BigDecimal finalPrice;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  @PrePersist
+  protected void onCreate() {
+    createdAt = LocalDateTime.now();
+  }
+}
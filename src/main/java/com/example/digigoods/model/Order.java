@@ -1,6 +1,8 @@
 package com.example.digigoods.model;
 
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -10,10 +12,13 @@ import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -29,8 +34,16 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class Order {
 
+  /**
+   * Number of IDs taken from {@code orders_seq} per round trip. The sequence value is the lowest ID
+   * of the block, so IDs handed out by Hibernate and by the checkout pipeline never overlap.
+   */
+  public static final int ID_ALLOCATION_SIZE = 50;
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+  @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq",
+      allocationSize = ID_ALLOCATION_SIZE)
   private Long id;
 
   @ManyToOne
@@ -51,7 +64,11 @@ public class Order {
       joinColumns = @JoinColumn(name = "order_id"),
       inverseJoinColumns = @JoinColumn(name = "discount_id")
   )
-  private Set<Discount> appliedDiscounts = new HashSet<>();
+  private List<Discount> appliedDiscounts = new ArrayList<>();
+
+  @ElementCollection
+  @CollectionTable(name = "order_items", joinColumns = @JoinColumn(name = "order_id"))
+  private List<OrderItem> items = new ArrayList<>();
 
   @Column(name = "original_subtotal", nullable = false, precision = 10, scale = 2)
   private BigDecimal originalSubtotal;
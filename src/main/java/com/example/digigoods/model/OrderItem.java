@@ -0,0 +1,38 @@
+package com.example.digigoods.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Line of an order, with the prices the product was sold at. Orders are read from their lines
+ * without joining the catalog, whose prices may have changed since.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItem {
+
+  @Column(name = "product_id", nullable = false)
+  private Long productId;
+
+  @Column(nullable = false)
+  private Integer quantity;
+
+  /**
+   * Catalog price of one unit when the order was placed.
+   */
+  @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
+  private BigDecimal unitPrice;
+
+  /**
+   * Price of all units of the line after product-specific discounts. General discounts apply to
+   * the order as a whole and are not spread over its lines.
+   */
+  @Column(name = "line_price", nullable = false, precision = 10, scale = 2)
+  private BigDecimal linePrice;
+}
@@ -0,0 +1,19 @@
+package com.example.digigoods.model;
+
+/**
+ * Processing status of an order.
+ */
+public enum OrderStatus {
+  /**
+   * Stock and discount uses are taken, and the order waits to be written.
+   */
+  PENDING,
+  /**
+   * The order is written.
+   */
+  CREATED,
+  /**
+   * The order could not be written, and its stock and discount uses were given back.
+   */
+  FAILED
+}
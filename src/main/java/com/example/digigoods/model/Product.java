@@ -1,10 +1,13 @@
 package com.example.digigoods.model;
 
+import com.example.digigoods.service.ProductCatalogInvalidationListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import lombok.AllArgsConstructor;
@@ -16,13 +19,16 @@ import lombok.NoArgsConstructor;
  */
 @Entity
 @Table(name = "products")
+@EntityListeners(ProductCatalogInvalidationListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+  @SequenceGenerator(name = "products_seq", sequenceName = "products_seq",
+      allocationSize = 50)
   private Long id;
 
   @Column(nullable = false)
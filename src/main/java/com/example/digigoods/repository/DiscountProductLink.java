@@ -0,0 +1,10 @@
+package com.example.digigoods.repository;
+
+/**
+ * Link between a discount and a product it applies to, by ID only.
+ *
+ * @param discountId the discount ID
+ * @param productId the product ID
+ */
+public record DiscountProductLink(Long discountId, Long productId) {
+}
@@ -3,14 +3,17 @@ package com.example.digigoods.repository;
 import com.example.digigoods.model.Discount;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 /**
  * Repository interface for Discount entity.
  */
 @Repository
-public interface DiscountRepository extends JpaRepository<Discount, Long> {
+public interface DiscountRepository extends JpaRepository<Discount, Long>,
+    DiscountRepositoryCustom {
 
   /**
    * Find a discount by its code.
@@ -21,10 +24,20 @@ public interface DiscountRepository extends JpaRepository<Discount, Long> {
   Optional<Discount> findByCode(String code);
 
   /**
-   * Find all discounts by their codes.
+   * Find all discounts by their codes, together with their applicable products.
    *
    * @param codes the list of discount codes
    * @return list of discounts
    */
+  @EntityGraph(attributePaths = "applicableProducts")
   List<Discount> findAllByCodeIn(List<String> codes);
+
+  /**
+   * Find every link between a discount and a product it applies to, without loading either.
+   *
+   * @return list of discount-product links
+   */
+  @Query("select new com.example.digigoods.repository.DiscountProductLink(d.id, p.id)"
+      + " from Discount d join d.applicableProducts p")
+  List<DiscountProductLink> findAllProductLinks();
 }
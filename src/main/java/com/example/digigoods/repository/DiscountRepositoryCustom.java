@@ -0,0 +1,34 @@
+package com.example.digigoods.repository;
+
+import java.util.List;
+
+/**
+ * Custom redemption operations of {@link DiscountRepository}, issued as plain SQL.
+ */
+public interface DiscountRepositoryCustom {
+
+  /**
+   * Redeem one use of several discounts in one batch, each only if it has uses left.
+   *
+   * @param codes the discount codes, in the order their rows should be locked
+   * @return update count per code, in the given order; 0 if the code is missing or used up
+   */
+  int[] redeem(List<String> codes);
+
+  /**
+   * Take up to a number of uses of a discount at once, for handing out from memory later.
+   *
+   * @param code the discount code
+   * @param uses the number of uses wanted
+   * @return number of uses taken, 0 if the code is missing or used up
+   */
+  int reserve(String code, int uses);
+
+  /**
+   * Give back uses previously taken with {@link #reserve(String, int)}.
+   *
+   * @param code the discount code
+   * @param uses the number of uses to give back
+   */
+  void release(String code, int uses);
+}
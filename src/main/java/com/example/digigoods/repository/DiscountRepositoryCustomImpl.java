@@ -0,0 +1,73 @@
+package com.example.digigoods.repository;
+
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+/**
+ * JDBC implementation of {@link DiscountRepositoryCustom}. Statements run on the connection of the
+ * surrounding JPA transaction.
+ */
+class DiscountRepositoryCustomImpl implements DiscountRepositoryCustom {
+
+  private static final String REDEEM_SQL = "UPDATE discounts"
+      + " SET remaining_uses = remaining_uses - 1"
+      + " WHERE code = :code AND remaining_uses > 0";
+  private static final String RESERVE_SQL = "UPDATE discounts"
+      + " SET remaining_uses = remaining_uses - :uses"
+      + " WHERE code = :code AND remaining_uses >= :uses";
+  private static final String RELEASE_SQL = "UPDATE discounts"
+      + " SET remaining_uses = remaining_uses + :uses WHERE code = :code";
+  private static final String FIND_REMAINING_USES_SQL =
+      "SELECT remaining_uses FROM discounts WHERE code = :code";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final EntityManager entityManager;
+
+  DiscountRepositoryCustomImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                               EntityManager entityManager) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public int[] redeem(List<String> codes) {
+    // Write pending entity changes first so that the statements apply in program order
+    entityManager.flush();
+
+    SqlParameterSource[] batch = codes.stream()
+        .map(code -> new MapSqlParameterSource("code", code))
+        .toArray(SqlParameterSource[]::new);
+    return jdbcTemplate.batchUpdate(REDEEM_SQL, batch);
+  }
+
+  @Override
+  public int reserve(String code, int uses) {
+    while (true) {
+      List<Integer> remaining = jdbcTemplate.queryForList(FIND_REMAINING_USES_SQL,
+          Map.of("code", code), Integer.class);
+      if (remaining.isEmpty() || remaining.get(0) <= 0) {
+        return 0;
+      }
+
+      // Take a whole block if possible, otherwise whatever is left; retry if another node won
+      int taken = Math.min(uses, remaining.get(0));
+      int updated = jdbcTemplate.update(RESERVE_SQL, new MapSqlParameterSource()
+          .addValue("code", code)
+          .addValue("uses", taken));
+      if (updated == 1) {
+        return taken;
+      }
+    }
+  }
+
+  @Override
+  public void release(String code, int uses) {
+    jdbcTemplate.update(RELEASE_SQL, new MapSqlParameterSource()
+        .addValue("code", code)
+        .addValue("uses", uses));
+  }
+}
@@ -0,0 +1,22 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.model.IdempotencyRecord;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for IdempotencyRecord entity.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+  /**
+   * Find the outcome of a checkout by the key it was submitted with.
+   *
+   * @param userId the ID of the user who submitted the checkout
+   * @param idempotencyKey the idempotency key
+   * @return idempotency record if the checkout has completed
+   */
+  Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+}
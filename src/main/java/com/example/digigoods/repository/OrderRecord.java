@@ -0,0 +1,22 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.model.OrderItem;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Row data of an order with an ID assigned up front, written without going through the entity.
+ *
+ * @param id the order ID
+ * @param userId the ID of the ordering user
+ * @param originalSubtotal the subtotal before discounts
+ * @param finalPrice the price after discounts
+ * @param orderDate the time the order was placed
+ * @param items the lines of the order, one per distinct product
+ * @param discountIds the IDs of the applied discounts
+ */
+public record OrderRecord(long id, long userId, BigDecimal originalSubtotal,
+                          BigDecimal finalPrice, LocalDateTime orderDate, List<OrderItem> items,
+                          long[] discountIds) {
+}
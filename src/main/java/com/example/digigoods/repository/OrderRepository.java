@@ -1,12 +1,67 @@
 package com.example.digigoods.repository;
 
+import com.example.digigoods.dto.OrderSummary;
 import com.example.digigoods.model.Order;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Repository interface for Order entity.
  */
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
+
+  /**
+   * Find the final price of an order of a user, without loading the order.
+   *
+   * @param id the order ID
+   * @param userId the ID of the user the order must belong to
+   * @return final price if the user has an order with this ID
+   */
+  @Query("select o.finalPrice from Order o where o.id = :id and o.user.id = :userId")
+  Optional<BigDecimal> findFinalPrice(Long id, Long userId);
+
+  /**
+   * Find the newest orders of a user, newest first and by ID among orders placed at the same time.
+   *
+   * @param userId the ID of the user
+   * @param limit the maximum number of orders to return
+   * @return summaries of the orders
+   */
+  @Query("""
+      select new com.example.digigoods.dto.OrderSummary(
+          o.id, o.orderDate, o.originalSubtotal, o.finalPrice)
+      from Order o
+      where o.user.id = :userId
+      order by o.orderDate desc, o.id""")
+  List<OrderSummary> findHistory(@Param("userId") Long userId, Limit limit);
+
+  /**
+   * Find the orders of a user following a given order in history order, seeking past the previous
+   * page in the {@code (user_id, order_date DESC, id)} index instead of counting an offset.
+   *
+   * @param userId the ID of the user
+   * @param orderDate the order date of the last order of the previous page
+   * @param afterId the ID of the last order of the previous page
+   * @param limit the maximum number of orders to return
+   * @return summaries of the orders
+   */
+  @Query("""
+      select new com.example.digigoods.dto.OrderSummary(
+          o.id, o.orderDate, o.originalSubtotal, o.finalPrice)
+      from Order o
+      where o.user.id = :userId
+        and (o.orderDate < :orderDate or (o.orderDate = :orderDate and o.id > :afterId))
+      order by o.orderDate desc, o.id""")
+  List<OrderSummary> findHistoryAfter(@Param("userId") Long userId,
+                                      @Param("orderDate") LocalDateTime orderDate,
+                                      @Param("afterId") Long afterId,
+                                      Limit limit);
 }
@@ -0,0 +1,23 @@
+package com.example.digigoods.repository;
+
+import java.util.List;
+
+/**
+ * Custom write operations of {@link OrderRepository}, issued as plain SQL.
+ */
+public interface OrderRepositoryCustom {
+
+  /**
+   * Take the next block of order IDs from {@code orders_seq}.
+   *
+   * @return lowest ID of the block
+   */
+  long nextIdBlock();
+
+  /**
+   * Insert several orders with their products and applied discounts, one batch per table.
+   *
+   * @param orders the orders to insert
+   */
+  void insertOrders(List<OrderRecord> orders);
+}
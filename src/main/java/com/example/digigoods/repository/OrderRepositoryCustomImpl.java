@@ -0,0 +1,97 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.model.OrderItem;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+/**
+ * JDBC implementation of {@link OrderRepositoryCustom}. Statements run on the connection of the
+ * surrounding JPA transaction.
+ */
+class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+  private static final String ORDER_SEQUENCE = "orders_seq";
+  private static final String INSERT_ORDER_SQL =
+      "INSERT INTO orders (id, user_id, original_subtotal, final_price, order_date) "
+          + "VALUES (:id, :userId, :originalSubtotal, :finalPrice, :orderDate)";
+  private static final String INSERT_ORDER_PRODUCT_SQL =
+      "INSERT INTO order_products (order_id, product_id) VALUES (:orderId, :productId)";
+  private static final String INSERT_ORDER_ITEM_SQL =
+      "INSERT INTO order_items (order_id, product_id, quantity, unit_price, line_price) "
+          + "VALUES (:orderId, :productId, :quantity, :unitPrice, :linePrice)";
+  private static final String INSERT_ORDER_DISCOUNT_SQL =
+      "INSERT INTO order_applied_discounts (order_id, discount_id) VALUES (:orderId, :discountId)";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final EntityManager entityManager;
+  private final String nextIdBlockSql;
+
+  OrderRepositoryCustomImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                            EntityManager entityManager) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.entityManager = entityManager;
+    this.nextIdBlockSql = entityManager.getEntityManagerFactory()
+        .unwrap(SessionFactoryImplementor.class)
+        .getJdbcServices()
+        .getDialect()
+        .getSequenceSupport()
+        .getSequenceNextValString(ORDER_SEQUENCE);
+  }
+
+  @Override
+  public long nextIdBlock() {
+    return jdbcTemplate.getJdbcTemplate().queryForObject(nextIdBlockSql, Long.class);
+  }
+
+  @Override
+  public void insertOrders(List<OrderRecord> orders) {
+    // Write pending entity changes first so that the statements apply in program order
+    entityManager.flush();
+
+    List<SqlParameterSource> orderRows = new ArrayList<>();
+    List<SqlParameterSource> productRows = new ArrayList<>();
+    List<SqlParameterSource> itemRows = new ArrayList<>();
+    List<SqlParameterSource> discountRows = new ArrayList<>();
+    for (OrderRecord order : orders) {
+      orderRows.add(new MapSqlParameterSource()
+          .addValue("id", order.id())
+          .addValue("userId", order.userId())
+          .addValue("originalSubtotal", order.originalSubtotal())
+          .addValue("finalPrice", order.finalPrice())
+          .addValue("orderDate", order.orderDate()));
+      for (OrderItem item : order.items()) {
+        productRows.add(new MapSqlParameterSource()
+            .addValue("orderId", order.id())
+            .addValue("productId", item.getProductId()));
+        itemRows.add(new MapSqlParameterSource()
+            .addValue("orderId", order.id())
+            .addValue("productId", item.getProductId())
+            .addValue("quantity", item.getQuantity())
+            .addValue("unitPrice", item.getUnitPrice())
+            .addValue("linePrice", item.getLinePrice()));
+      }
+      for (long discountId : order.discountIds()) {
+        discountRows.add(new MapSqlParameterSource()
+            .addValue("orderId", order.id())
+            .addValue("discountId", discountId));
+      }
+    }
+
+    jdbcTemplate.batchUpdate(INSERT_ORDER_SQL, orderRows.toArray(SqlParameterSource[]::new));
+    if (!productRows.isEmpty()) {
+      jdbcTemplate.batchUpdate(INSERT_ORDER_PRODUCT_SQL,
+          productRows.toArray(SqlParameterSource[]::new));
+      jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM_SQL,
+          itemRows.toArray(SqlParameterSource[]::new));
+    }
+    if (!discountRows.isEmpty()) {
+      jdbcTemplate.batchUpdate(INSERT_ORDER_DISCOUNT_SQL,
+          discountRows.toArray(SqlParameterSource[]::new));
+    }
+  }
+}
@@ -1,15 +1,29 @@
 package com.example.digigoods.repository;
 
 import com.example.digigoods.model.Product;
+import jakarta.persistence.QueryHint;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Repository interface for Product entity.
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>,
+    ProductRepositoryCustom {
+
+  /**
+   * Number of rows fetched per round trip when streaming products.
+   */
+  int STREAM_FETCH_SIZE = 1000;
 
   /**
    * Find all products by their IDs.
@@ -18,4 +32,45 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
    * @return list of products
    */
   List<Product> findAllByIdIn(List<Long> ids);
+
+  /**
+   * Find the products following a given ID in ID order, seeking past the previous page instead of
+   * counting an offset. Every filter is optional and skipped when {@code null}.
+   *
+   * @param afterId the ID of the last product of the previous page, 0 for the first page
+   * @param minPrice the minimum price, inclusive
+   * @param maxPrice the maximum price, inclusive
+   * @param namePattern a {@code LIKE} pattern for the name, using {@code \} as escape character
+   * @param inStockOnly whether to skip products without stock
+   * @param limit the maximum number of products to return
+   * @return products ordered by ID
+   */
+  @Query("""
+      select p from Product p
+      where p.id > :afterId
+        and (:minPrice is null or p.price >= :minPrice)
+        and (:maxPrice is null or p.price <= :maxPrice)
+        and (:namePattern is null or p.name like :namePattern escape '\\')
+        and (:inStockOnly = false or p.stock > 0)
+      order by p.id""")
+  List<Product> findPage(@Param("afterId") long afterId,
+                         @Param("minPrice") BigDecimal minPrice,
+                         @Param("maxPrice") BigDecimal maxPrice,
+                         @Param("namePattern") String namePattern,
+                         @Param("inStockOnly") boolean inStockOnly,
+                         Limit limit);
+
+  /**
+   * Stream the products following a given ID in ID order, fetching them from the database in
+   * batches rather than all at once. The stream must be consumed and closed inside a transaction.
+   *
+   * @param afterId the ID to resume after, 0 to start from the beginning
+   * @return stream of products ordered by ID
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select p from Product p where p.id > :afterId order by p.id")
+  Stream<Product> streamAllAfter(@Param("afterId") long afterId);
 }
@@ -0,0 +1,38 @@
+package com.example.digigoods.repository;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Custom stock operations of {@link ProductRepository}, issued as plain SQL.
+ */
+public interface ProductRepositoryCustom {
+
+  /**
+   * Decrement the stock of several products in one batch, each only if enough stock is left.
+   *
+   * <p>Rows are updated in the order given. Callers pass IDs in ascending order, so concurrent
+   * orders sharing products lock them in the same order and cannot deadlock.
+   *
+   * @param productIds the product IDs, in ascending order
+   * @param quantities the quantity to take of each product
+   * @return update count per product; 0 if the product is missing or short of stock
+   */
+  int[] decrementStock(long[] productIds, int[] quantities);
+
+  /**
+   * Give back stock previously taken with {@link #decrementStock(long[], int[])}, in one batch.
+   *
+   * @param productIds the product IDs, in ascending order
+   * @param quantities the quantity to give back of each product
+   */
+  void restoreStock(long[] productIds, int[] quantities);
+
+  /**
+   * Read the current stock of several products straight from the database.
+   *
+   * @param ids the product IDs
+   * @return stock per product ID, without entries for missing products
+   */
+  Map<Long, Integer> findStockLevels(Collection<Long> ids);
+}
@@ -0,0 +1,65 @@
+package com.example.digigoods.repository;
+
+import jakarta.persistence.EntityManager;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+/**
+ * JDBC implementation of {@link ProductRepositoryCustom}. Statements run on the connection of the
+ * surrounding JPA transaction.
+ */
+class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+  private static final String DECREMENT_STOCK_SQL =
+      "UPDATE products SET stock = stock - :quantity WHERE id = :id AND stock >= :quantity";
+  private static final String RESTORE_STOCK_SQL =
+      "UPDATE products SET stock = stock + :quantity WHERE id = :id";
+  private static final String FIND_STOCK_LEVELS_SQL =
+      "SELECT id, stock FROM products WHERE id IN (:ids)";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final EntityManager entityManager;
+
+  ProductRepositoryCustomImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                              EntityManager entityManager) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public int[] decrementStock(long[] productIds, int[] quantities) {
+    // Write pending entity changes first so that the statements apply in program order
+    entityManager.flush();
+    return jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, toBatch(productIds, quantities));
+  }
+
+  @Override
+  public void restoreStock(long[] productIds, int[] quantities) {
+    entityManager.flush();
+    jdbcTemplate.batchUpdate(RESTORE_STOCK_SQL, toBatch(productIds, quantities));
+  }
+
+  @Override
+  public Map<Long, Integer> findStockLevels(Collection<Long> ids) {
+    Map<Long, Integer> stockLevels = new HashMap<>();
+    jdbcTemplate.query(FIND_STOCK_LEVELS_SQL, Map.of("ids", ids),
+        rs -> {
+          stockLevels.put(rs.getLong("id"), rs.getInt("stock"));
+        });
+    return stockLevels;
+  }
+
+  private static SqlParameterSource[] toBatch(long[] productIds, int[] quantities) {
+    SqlParameterSource[] batch = new SqlParameterSource[productIds.length];
+    for (int i = 0; i < productIds.length; i++) {
+      batch[i] = new MapSqlParameterSource()
+          .addValue("id", productIds[i])
+          .addValue("quantity", quantities[i]);
+    }
+    return batch;
+  }
+}
@@ -3,7 +3,11 @@ package com.example.digigoods.repository;
 import com.example.digigoods.model.User;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repository interface for User entity.
@@ -12,10 +16,25 @@ import org.springframework.stereotype.Repository;
 public interface UserRepository extends JpaRepository<User, Long> {
 
   /**
-   * Find a user by username.
+   * Find a user by username. The lookup backs authentication, whose result is cached, so it
+   * always reads from the primary: a lagging replica could refill the cache with a password or
+   * user that was just changed.
    *
    * @param username the username to search for
    * @return an Optional containing the user if found
    */
+  @Transactional
   Optional<User> findByUsername(String username);
+
+  /**
+   * Replace the stored password hash of a user. As a bulk update it bypasses entity callbacks,
+   * so the caller is responsible for evicting any cached copy of the user.
+   *
+   * @param id the user ID
+   * @param password the new password hash
+   * @return the number of updated rows
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update User u set u.password = :password where u.id = :id")
+  int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
@@ -0,0 +1,10 @@
+package com.example.digigoods.security;
+
+/**
+ * Principal of a request authenticated purely from verified JWT claims.
+ *
+ * @param userId the user ID asserted by the token
+ * @param username the username asserted by the token
+ */
+public record AuthenticatedUser(Long userId, String username) {
+}
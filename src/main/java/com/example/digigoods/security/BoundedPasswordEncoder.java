@@ -0,0 +1,96 @@
+package com.example.digigoods.security;
+
+import com.example.digigoods.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Password encoder running the hashing of a delegate encoder on a dedicated, size-limited pool.
+ *
+ * <p>Password hashing is deliberately CPU-heavy. Running it on its own pool caps the number of
+ * cores a burst of logins can occupy, and the bounded queue sheds excess attempts with a
+ * {@link ServiceUnavailableException} instead of letting them pile up on request threads.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+  private final PasswordEncoder delegate;
+  private final ThreadPoolExecutor executor;
+  private final Duration retryAfter;
+  private final Timer hashTimer;
+
+  /**
+   * Create the bounded password encoder.
+   *
+   * @param delegate the encoder doing the actual hashing
+   * @param poolSize the number of hashing threads
+   * @param queueCapacity the number of hashing requests allowed to wait for a thread
+   * @param retryAfter the retry delay suggested to clients when the queue is full
+   * @param meterRegistry the registry the pool and timing metrics are published to
+   */
+  public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity,
+                                Duration retryAfter, MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.retryAfter = retryAfter;
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        runnable -> {
+          Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+    this.hashTimer = Timer.builder("password.hash")
+        .description("Time spent hashing or verifying a password")
+        .register(meterRegistry);
+    new ExecutorServiceMetrics(executor, "password.hashing", Tags.empty()).bindTo(meterRegistry);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return submit(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return submit(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+
+  private <T> T submit(Callable<T> task) {
+    try {
+      return executor.submit(() -> hashTimer.recordCallable(task)).get();
+    } catch (RejectedExecutionException e) {
+      throw new ServiceUnavailableException(
+          "Too many login attempts in progress, please retry later", retryAfter);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Password hashing failed", e.getCause());
+    }
+  }
+}
@@ -1,6 +1,8 @@
 package com.example.digigoods.security;
 
 import com.example.digigoods.service.JwtService;
+import com.example.digigoods.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.SignatureException;
@@ -9,6 +11,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,12 +26,34 @@ import org.springframework.web.filter.OncePerRequestFilter;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+  /**
+   * Request attribute holding the verified {@link Claims} of the bearer token, so that handlers
+   * further down the chain do not need to parse the token again.
+   */
+  public static final String CLAIMS_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".CLAIMS";
+
   private final JwtService jwtService;
   private final UserDetailsService userDetailsService;
+  private final TokenRevocationService tokenRevocationService;
+  private final boolean trustedClaims;
 
-  public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+  /**
+   * Create the JWT authentication filter.
+   *
+   * @param jwtService the JWT service
+   * @param userDetailsService the user details service
+   * @param tokenRevocationService the token revocation service
+   * @param trustedClaims whether to authenticate from verified claims without a user lookup
+   */
+  public JwtAuthenticationFilter(JwtService jwtService,
+                                 UserDetailsService userDetailsService,
+                                 TokenRevocationService tokenRevocationService,
+                                 @Value("${jwt.trusted-claims.enabled:false}")
+                                 boolean trustedClaims) {
     this.jwtService = jwtService;
     this.userDetailsService = userDetailsService;
+    this.tokenRevocationService = tokenRevocationService;
+    this.trustedClaims = trustedClaims;
   }
 
   @Override
@@ -37,12 +62,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     final String requestTokenHeader = request.getHeader("Authorization");
 
     String username = null;
-    String jwtToken = null;
+    Claims claims = null;
 
     if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-      jwtToken = requestTokenHeader.substring(7);
+      String jwtToken = requestTokenHeader.substring(7);
       try {
-        username = jwtService.extractUsername(jwtToken);
+        claims = jwtService.extractClaims(jwtToken);
+        if (tokenRevocationService.isRevoked(claims)) {
+          logger.error("JWT Token has been revoked");
+        } else {
+          request.setAttribute(CLAIMS_ATTRIBUTE, claims);
+          username = claims.getSubject();
+        }
       } catch (IllegalArgumentException e) {
         logger.error("Unable to get JWT Token");
       } catch (ExpiredJwtException e) {
@@ -55,12 +86,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-      UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+      UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
+          trustedClaims ? authenticateFromClaims(claims) : authenticateFromUserDetails(claims);
 
-      if (jwtService.validateToken(jwtToken, userDetails.getUsername())) {
-        UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
-            new UsernamePasswordAuthenticationToken(
-                userDetails, null, userDetails.getAuthorities());
+      if (usernamePasswordAuthenticationToken != null) {
         usernamePasswordAuthenticationToken
             .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
         SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
@@ -68,4 +97,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
     filterChain.doFilter(request, response);
   }
+
+  private UsernamePasswordAuthenticationToken authenticateFromClaims(Claims claims) {
+    if (!jwtService.validateToken(claims, claims.getSubject())) {
+      return null;
+    }
+    AuthenticatedUser principal =
+        new AuthenticatedUser(jwtService.extractUserId(claims), claims.getSubject());
+    return new UsernamePasswordAuthenticationToken(
+        principal, null, jwtService.extractAuthorities(claims));
+  }
+
+  private UsernamePasswordAuthenticationToken authenticateFromUserDetails(Claims claims) {
+    UserDetails userDetails = this.userDetailsService.loadUserByUsername(claims.getSubject());
+    if (!jwtService.validateToken(claims, userDetails.getUsername())) {
+      return null;
+    }
+    return new UsernamePasswordAuthenticationToken(
+        userDetails, null, userDetails.getAuthorities());
+  }
 }
@@ -0,0 +1,89 @@
+package com.example.digigoods.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.HashMap;
+import java.util.Map;
+import javax.crypto.SecretKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keyring of HMAC signing keys, identified by key ID ({@code kid}).
+ *
+ * <p>New tokens are always signed with the active key. Retired keys are only used to verify
+ * tokens issued before a rollover, until those tokens expire and the key can be dropped from
+ * configuration. Tokens without a {@code kid} header are verified with the active key.
+ */
+@Component
+public class JwtKeyring extends LocatorAdapter<Key> {
+
+  private final String activeKeyId;
+  private final SecretKey activeKey;
+  private final Map<String, SecretKey> keys;
+
+  /**
+   * Create the keyring.
+   *
+   * @param activeKeyId the key ID of the active signing key
+   * @param activeSecret the secret of the active signing key
+   * @param retiredKeys comma-separated {@code kid:secret} pairs still accepted for verification
+   */
+  public JwtKeyring(@Value("${jwt.key-id:primary}") String activeKeyId,
+                    @Value("${jwt.secret:mySecretKey}") String activeSecret,
+                    @Value("${jwt.retired-keys:}") String retiredKeys) {
+    this.activeKeyId = activeKeyId;
+    this.activeKey = toKey(activeSecret);
+    this.keys = new HashMap<>();
+    for (String entry : retiredKeys.split(",")) {
+      if (entry.isBlank()) {
+        continue;
+      }
+      int separator = entry.indexOf(':');
+      if (separator <= 0) {
+        throw new IllegalArgumentException("Retired JWT keys must be configured as kid:secret");
+      }
+      keys.put(entry.substring(0, separator).trim(), toKey(entry.substring(separator + 1).trim()));
+    }
+    keys.put(activeKeyId, activeKey);
+  }
+
+  /**
+   * Get the key ID of the active signing key.
+   *
+   * @return active key ID
+   */
+  public String getActiveKeyId() {
+    return activeKeyId;
+  }
+
+  /**
+   * Get the active signing key.
+   *
+   * @return active signing key
+   */
+  public SecretKey getActiveKey() {
+    return activeKey;
+  }
+
+  @Override
+  protected Key locate(JwsHeader header) {
+    String keyId = header.getKeyId();
+    if (keyId == null) {
+      return activeKey;
+    }
+    SecretKey key = keys.get(keyId);
+    if (key == null) {
+      throw new SignatureException("Unknown JWT signing key ID: " + keyId);
+    }
+    return key;
+  }
+
+  private static SecretKey toKey(String secret) {
+    return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+  }
+}
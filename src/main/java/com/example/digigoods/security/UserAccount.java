@@ -0,0 +1,11 @@
+package com.example.digigoods.security;
+
+/**
+ * Immutable snapshot of the user fields needed for authentication.
+ *
+ * @param id the user ID
+ * @param username the username
+ * @param password the password hash
+ */
+public record UserAccount(Long id, String username, String password) {
+}
@@ -0,0 +1,19 @@
+package com.example.digigoods.security;
+
+import java.util.List;
+import lombok.Getter;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * User details that also carry the user ID, so callers do not need a second lookup.
+ */
+@Getter
+public class UserAccountDetails extends User {
+
+  private final Long userId;
+
+  public UserAccountDetails(UserAccount account) {
+    super(account.username(), account.password(), List.of());
+    this.userId = account.id();
+  }
+}
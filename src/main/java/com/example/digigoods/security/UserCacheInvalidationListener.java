@@ -0,0 +1,51 @@
+package com.example.digigoods.security;
+
+import com.example.digigoods.model.User;
+import com.example.digigoods.service.TokenRevocationService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener evicting cached user details whenever a user is created, changed or deleted,
+ * and revoking the tokens issued to a user that is changed or deleted.
+ */
+@Component
+public class UserCacheInvalidationListener {
+
+  // Resolved lazily: the services depend on the repositories, which depend on this listener
+  private final ObjectProvider<UserDetailsServiceImpl> userDetailsService;
+  private final ObjectProvider<TokenRevocationService> tokenRevocationService;
+
+  public UserCacheInvalidationListener(ObjectProvider<UserDetailsServiceImpl> userDetailsService,
+                                       ObjectProvider<TokenRevocationService>
+                                           tokenRevocationService) {
+    this.userDetailsService = userDetailsService;
+    this.tokenRevocationService = tokenRevocationService;
+  }
+
+  /**
+   * Evict a new user, which may be cached as unknown.
+   *
+   * @param user the created user
+   */
+  @PostPersist
+  public void onUserCreated(User user) {
+    userDetailsService.getObject().evictUntilCompletion(user.getId(), user.getUsername());
+  }
+
+  /**
+   * Evict a changed or deleted user and revoke every token issued to it, so that tokens issued
+   * against the previous credentials stop authenticating, trusted claims or not.
+   *
+   * @param user the changed user
+   */
+  @PostUpdate
+  @PostRemove
+  public void onUserChanged(User user) {
+    userDetailsService.getObject().evictUntilCompletion(user.getId(), user.getUsername());
+    tokenRevocationService.getObject().revokeAllTokens(user.getId());
+  }
+}
@@ -2,33 +2,146 @@ package com.example.digigoods.security;
 
 import com.example.digigoods.model.User;
 import com.example.digigoods.repository.UserRepository;
-import java.util.ArrayList;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * User details service implementation.
+ *
+ * <p>Lookups are cached by username. Unknown usernames are cached as well, for a shorter time, so
+ * that repeated attempts with made-up usernames do not reach the database.
+ *
+ * <p>As a {@link UserDetailsPasswordService}, it also stores re-encoded password hashes when a
+ * successful login finds the stored hash weaker than the current encoder settings. Re-encoding
+ * keeps the same password, so unlike other user changes it leaves issued tokens valid.
  */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
   private final UserRepository userRepository;
+  private final Cache<String, Optional<UserAccount>> userCache;
+  // Bumped by every eviction, so that a lookup overlapping one does not cache what it read
+  private final AtomicLong generation = new AtomicLong();
 
-  public UserDetailsServiceImpl(UserRepository userRepository) {
+  /**
+   * Create the user details service.
+   *
+   * @param userRepository the user repository
+   * @param meterRegistry the registry the cache metrics are published to
+   * @param maxSize the maximum number of cached usernames
+   * @param ttl how long a found user is cached
+   * @param negativeTtl how long an unknown username is cached
+   */
+  public UserDetailsServiceImpl(
+      UserRepository userRepository,
+      MeterRegistry meterRegistry,
+      @Value("${auth.user-cache.max-size:10000}") long maxSize,
+      @Value("${auth.user-cache.ttl:5m}") Duration ttl,
+      @Value("${auth.user-cache.negative-ttl:30s}") Duration negativeTtl) {
     this.userRepository = userRepository;
+    this.userCache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(Expiry.creating((String username, Optional<UserAccount> account) ->
+            account.isPresent() ? ttl : negativeTtl))
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, userCache, "users");
   }
 
   @Override
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-    User user = userRepository.findByUsername(username)
+    UserAccount account = findAccount(username)
         .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
-    return new org.springframework.security.core.userdetails.User(
-        user.getUsername(),
-        user.getPassword(),
-        new ArrayList<>()
-    );
+    return new UserAccountDetails(account);
+  }
+
+  @Override
+  @Transactional
+  public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+    User user = userRepository.findByUsername(userDetails.getUsername())
+        .orElseThrow(() -> new UsernameNotFoundException(
+            "User not found: " + userDetails.getUsername()));
+    // A bulk update, so the entity listener does not take the new hash for a credential change
+    userRepository.updatePassword(user.getId(), newPassword);
+    evictUntilCompletion(user.getId(), user.getUsername());
+
+    return new UserAccountDetails(
+        new UserAccount(user.getId(), user.getUsername(), newPassword));
+  }
+
+  /**
+   * Find the account of a user by username.
+   *
+   * @param username the username
+   * @return an Optional containing the account if found
+   */
+  public Optional<UserAccount> findAccount(String username) {
+    Optional<UserAccount> account = userCache.getIfPresent(username);
+    if (account == null) {
+      // Not loaded inside the cache's compute: the query may flush pending user changes, and the
+      // resulting eviction must not re-enter the cache mid-computation
+      long loadGeneration = generation.get();
+      account = userRepository.findByUsername(username)
+          .map(user -> new UserAccount(user.getId(), user.getUsername(), user.getPassword()));
+      userCache.put(username, account);
+      // An eviction since the load may be for the row just read: drop it again. An eviction
+      // after this check bumps the generation after the put, so it removes the entry itself
+      if (generation.get() != loadGeneration) {
+        userCache.asMap().remove(username, account);
+      }
+    }
+    return account;
+  }
+
+  /**
+   * Evict a user now, and again once the current transaction completes, so that a concurrent
+   * lookup cannot re-cache the state from before the commit.
+   *
+   * @param userId the user ID, may be null for users that were never saved
+   * @param username the current username
+   */
+  void evictUntilCompletion(Long userId, String username) {
+    evict(userId, username);
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          evict(userId, username);
+        }
+      });
+    }
+  }
+
+  /**
+   * Evict a user from the cache, by username and by ID.
+   *
+   * @param userId the user ID, may be null for users that were never saved
+   * @param username the current username
+   */
+  public void evict(Long userId, String username) {
+    generation.incrementAndGet();
+    userCache.invalidate(username);
+    if (userId != null) {
+      // Also drop entries cached under a previous username
+      userCache.asMap().values()
+          .removeIf(account -> account.map(a -> userId.equals(a.id())).orElse(false));
+    }
   }
 }
@@ -2,10 +2,11 @@ package com.example.digigoods.service;
 
 import com.example.digigoods.dto.LoginRequest;
 import com.example.digigoods.dto.LoginResponse;
-import com.example.digigoods.model.User;
-import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.security.UserAccountDetails;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Service;
 
@@ -17,14 +18,21 @@ public class AuthService {
 
   private final AuthenticationManager authenticationManager;
   private final JwtService jwtService;
-  private final UserRepository userRepository;
+  private final TokenRevocationService tokenRevocationService;
 
+  /**
+   * Create the authentication service.
+   *
+   * @param authenticationManager the authentication manager
+   * @param jwtService the JWT service
+   * @param tokenRevocationService the token revocation service
+   */
   public AuthService(AuthenticationManager authenticationManager,
                      JwtService jwtService,
-                     UserRepository userRepository) {
+                     TokenRevocationService tokenRevocationService) {
     this.authenticationManager = authenticationManager;
     this.jwtService = jwtService;
-    this.userRepository = userRepository;
+    this.tokenRevocationService = tokenRevocationService;
   }
 
   /**
@@ -35,18 +43,27 @@ public class AuthService {
    * @throws AuthenticationException if authentication fails
    */
   public LoginResponse login(LoginRequest loginRequest) {
-    authenticationManager.authenticate(
+    Authentication authentication = authenticationManager.authenticate(
         new UsernamePasswordAuthenticationToken(
             loginRequest.getUsername(),
             loginRequest.getPassword()
         )
     );
 
-    User user = userRepository.findByUsername(loginRequest.getUsername())
-        .orElseThrow(() -> new RuntimeException("User not found"));
+    // The authenticated principal already carries the user ID, no second lookup needed
+    UserAccountDetails user = (UserAccountDetails) authentication.getPrincipal();
+
+    String token = jwtService.generateToken(user.getUserId(), user.getUsername());
 
-    String token = jwtService.generateToken(user.getId(), user.getUsername());
+    return new LoginResponse(token, user.getUserId(), user.getUsername());
+  }
 
-    return new LoginResponse(token, user.getId(), user.getUsername());
+  /**
+   * Log out by revoking the presented JWT token.
+   *
+   * @param claims the verified claims of the token to revoke
+   */
+  public void logout(Claims claims) {
+    tokenRevocationService.revokeToken(claims);
   }
 }
@@ -0,0 +1,149 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.CartLine;
+import com.example.digigoods.exception.InsufficientStockException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Quantity per product of a cart, held as two parallel primitive arrays in ascending product ID
+ * order. Lines are addressed by index, and the lines of a cart with thousands of products are
+ * walked without boxing or hashing.
+ */
+public final class Cart {
+
+  private final long[] productIds;
+  private final int[] quantities;
+
+  private Cart(long[] productIds, int[] quantities) {
+    this.productIds = productIds;
+    this.quantities = quantities;
+  }
+
+  /**
+   * Build a cart from product IDs repeated once per unit ordered.
+   *
+   * @param productIds the product IDs
+   * @return cart
+   */
+  public static Cart ofProductIds(List<Long> productIds) {
+    return of(productIds, null);
+  }
+
+  /**
+   * Build a cart from repeated product IDs and from product and quantity lines, either of which
+   * may be {@code null}. Quantities of the same product are added up.
+   *
+   * @param productIds the product IDs, once per unit ordered
+   * @param lines the cart lines
+   * @return cart
+   * @throws InsufficientStockException if the total quantity of a product exceeds any stock level
+   */
+  public static Cart of(List<Long> productIds, List<CartLine> lines) {
+    int idCount = productIds != null ? productIds.size() : 0;
+    int lineCount = lines != null ? lines.size() : 0;
+    long[] ids = new long[idCount + lineCount];
+    int[] units = new int[ids.length];
+    for (int i = 0; i < idCount; i++) {
+      ids[i] = productIds.get(i);
+      units[i] = 1;
+    }
+    for (int i = 0; i < lineCount; i++) {
+      CartLine line = lines.get(i);
+      ids[idCount + i] = line.getProductId();
+      units[idCount + i] = line.getQuantity();
+    }
+
+    // Sort a copy of the IDs and drop repeats, then add up the quantities by binary search
+    long[] distinctIds = ids.clone();
+    Arrays.sort(distinctIds);
+    int distinct = 0;
+    for (long id : distinctIds) {
+      if (distinct == 0 || distinctIds[distinct - 1] != id) {
+        distinctIds[distinct++] = id;
+      }
+    }
+    distinctIds = Arrays.copyOf(distinctIds, distinct);
+
+    long[] totals = new long[distinct];
+    for (int i = 0; i < ids.length; i++) {
+      totals[Arrays.binarySearch(distinctIds, ids[i])] += units[i];
+    }
+    int[] quantities = new int[distinct];
+    for (int i = 0; i < distinct; i++) {
+      if (totals[i] > Integer.MAX_VALUE) {
+        throw new InsufficientStockException("Requested quantity of product " + distinctIds[i]
+            + " exceeds the maximum stock of any product");
+      }
+      quantities[i] = (int) totals[i];
+    }
+    return new Cart(distinctIds, quantities);
+  }
+
+  /**
+   * Get the number of distinct products.
+   *
+   * @return number of lines
+   */
+  public int size() {
+    return productIds.length;
+  }
+
+  /**
+   * Get the product ID of a line.
+   *
+   * @param line the line index
+   * @return product ID
+   */
+  public long productId(int line) {
+    return productIds[line];
+  }
+
+  /**
+   * Get the quantity of a line.
+   *
+   * @param line the line index
+   * @return quantity
+   */
+  public int quantity(int line) {
+    return quantities[line];
+  }
+
+  /**
+   * Find the line of a product.
+   *
+   * @param productId the product ID
+   * @return line index, or -1 if the product is not in the cart
+   */
+  public int indexOf(long productId) {
+    int line = Arrays.binarySearch(productIds, productId);
+    return line >= 0 ? line : -1;
+  }
+
+  /**
+   * Get the product IDs of all lines, in ascending order.
+   *
+   * @return copy of the product IDs
+   */
+  public long[] productIds() {
+    return productIds.clone();
+  }
+
+  /**
+   * Get the quantities of all lines, in product ID order.
+   *
+   * @return copy of the quantities
+   */
+  public int[] quantities() {
+    return quantities.clone();
+  }
+
+  /**
+   * Get the product IDs of all lines as a list, for queries.
+   *
+   * @return product IDs in ascending order
+   */
+  public List<Long> productIdList() {
+    return Arrays.stream(productIds).boxed().toList();
+  }
+}
@@ -0,0 +1,269 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.exception.ServiceUnavailableException;
+import com.example.digigoods.repository.OrderRecord;
+import com.example.digigoods.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Group-commits concurrent checkouts, so that a burst of small orders pays for one commit instead
+ * of one each.
+ *
+ * <p>Checkouts arriving within a short window, up to a maximum batch size, are run by a single
+ * committer thread in one transaction: each takes its stock and discount uses in turn, then their
+ * orders are inserted in one JDBC batch and committed together. A checkout that fails gets its
+ * exception and the batch is rolled back: the checkouts before it, which succeeded, are run again
+ * together, and those after it are committed one by one, so that several failures in a batch do
+ * not run it again for each. Every outcome is the one the checkouts would have had if committed
+ * one after another in arrival order. If the batch itself cannot commit, its checkouts are run
+ * again one by one.
+ *
+ * <p>A checkout waits at most the configured maximum for its batch. If it was still queued by
+ * then it is withdrawn and never runs; if its batch had already started, its outcome is unknown
+ * to the caller. Checkouts submitted while the coordinator shuts down commit on the calling
+ * thread, or on the committer as it drains the queue.
+ *
+ * <p>Disabled by default; checkouts then commit on the calling thread.
+ */
+@Component
+public class CheckoutCoordinator implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(CheckoutCoordinator.class);
+  private static final long POLL_MILLIS = 100;
+  private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+  private final OrderRepository orderRepository;
+  private final EntityManager entityManager;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+  private final long windowNanos;
+  private final int maxBatchSize;
+  private final Duration maxWait;
+
+  private final BlockingQueue<Submission> queue = new LinkedBlockingQueue<>();
+  private final Thread committer;
+  private volatile boolean running = true;
+
+  /**
+   * Create the checkout coordinator.
+   *
+   * @param orderRepository the order repository
+   * @param entityManager the shared entity manager
+   * @param transactionManager the transaction manager batches commit through
+   * @param enabled whether concurrent checkouts are group-committed
+   * @param window how long the first checkout of a batch waits for others to join it
+   * @param maxBatchSize the maximum number of checkouts committed together
+   * @param maxWait how long a checkout waits for its batch before giving up
+   */
+  public CheckoutCoordinator(OrderRepository orderRepository,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${checkout.group-commit.enabled:false}") boolean enabled,
+                             @Value("${checkout.group-commit.window:2ms}") Duration window,
+                             @Value("${checkout.group-commit.max-batch-size:64}")
+                             int maxBatchSize,
+                             @Value("${checkout.group-commit.max-wait:30s}") Duration maxWait) {
+    this.orderRepository = orderRepository;
+    this.entityManager = entityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.enabled = enabled;
+    this.windowNanos = window.toNanos();
+    this.maxBatchSize = maxBatchSize;
+    this.maxWait = maxWait;
+    if (enabled) {
+      committer = new Thread(this::work, "checkout-group-commit");
+      committer.setDaemon(true);
+      committer.start();
+    } else {
+      committer = null;
+    }
+  }
+
+  /**
+   * Check whether concurrent checkouts are group-committed.
+   *
+   * @return true if enabled
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Run a checkout in the next batch and wait for it to commit.
+   *
+   * @param checkout the checkout, taking stock and discount uses in the current transaction and
+   *                 returning the order to write
+   * @return the written order
+   * @throws ServiceUnavailableException if the batch did not complete within the maximum wait
+   */
+  OrderRecord commit(Supplier<PendingOrder> checkout) {
+    Submission submission = new Submission(checkout, new CompletableFuture<>());
+    if (!running) {
+      commitAlone(submission);
+    } else {
+      queue.add(submission);
+      // The committer may have drained the queue and stopped before the submission was added
+      if (!running && queue.remove(submission)) {
+        commitAlone(submission);
+      }
+    }
+    return await(submission);
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    // Stop taking checkouts, and let the committer finish those already queued
+    running = false;
+    if (committer != null) {
+      committer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+  }
+
+  private void work() {
+    List<Submission> batch = new ArrayList<>(maxBatchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        Submission first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+          Submission next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        commitBatch(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      } catch (Throwable e) {
+        // Keep the committer alive, and fail what the batch did not complete
+        log.error("Committing a batch of {} checkouts failed", batch.size(), e);
+        batch.forEach(submission -> submission.outcome().completeExceptionally(e));
+      } finally {
+        batch.clear();
+      }
+    }
+    for (Submission left = queue.poll(); left != null; left = queue.poll()) {
+      commitAlone(left);
+    }
+  }
+
+  private void commitBatch(List<Submission> batch) {
+    int failed = tryCommit(batch);
+    if (failed < 0) {
+      return;
+    }
+    // Those before the failed checkout succeeded and likely succeed again together, while those
+    // after it have not run and may fail as well, so they no longer share a transaction
+    List<Submission> before = batch.subList(0, failed);
+    int failedAgain = before.isEmpty() ? -1 : tryCommit(before);
+    if (failedAgain >= 0) {
+      before.subList(0, failedAgain).forEach(this::commitAlone);
+      before.subList(failedAgain + 1, before.size()).forEach(this::commitAlone);
+    }
+    batch.subList(failed + 1, batch.size()).forEach(this::commitAlone);
+  }
+
+  /**
+   * Run a batch in one transaction. The first checkout that fails gets its exception and the
+   * transaction is rolled back, as the failure marks it rollback-only.
+   *
+   * @return the index of the checkout that failed, or -1 once the batch is done
+   */
+  private int tryCommit(List<Submission> batch) {
+    List<OrderRecord> orders = new ArrayList<>(batch.size());
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        for (Submission submission : batch) {
+          try {
+            orders.add(submission.checkout().get().order());
+          } catch (RuntimeException e) {
+            submission.outcome().completeExceptionally(e);
+            status.setRollbackOnly();
+            return;
+          } finally {
+            // Nothing is pending, so drop the products read and let the next checkout see the
+            // stock left by this one
+            entityManager.clear();
+          }
+        }
+        orderRepository.insertOrders(orders);
+      });
+    } catch (RuntimeException e) {
+      log.warn("Committing a batch of {} checkouts failed, committing them one by one",
+          batch.size(), e);
+      batch.forEach(this::commitAlone);
+      return -1;
+    }
+    if (orders.size() < batch.size()) {
+      return orders.size();
+    }
+    for (int i = 0; i < batch.size(); i++) {
+      batch.get(i).outcome().complete(orders.get(i));
+    }
+    return -1;
+  }
+
+  private void commitAlone(Submission submission) {
+    try {
+      OrderRecord order = transactionTemplate.execute(status -> {
+        PendingOrder pending = submission.checkout().get();
+        orderRepository.insertOrders(List.of(pending.order()));
+        return pending.order();
+      });
+      submission.outcome().complete(order);
+    } catch (RuntimeException | Error e) {
+      submission.outcome().completeExceptionally(e);
+    }
+  }
+
+  private OrderRecord await(Submission submission) {
+    try {
+      return submission.outcome().get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw new CompletionException(e.getCause());
+    } catch (TimeoutException e) {
+      if (!queue.remove(submission)) {
+        log.warn("Checkout batch did not complete within {}, the checkout may still commit",
+            maxWait);
+      }
+      throw new ServiceUnavailableException("Checkout did not complete in time", RETRY_AFTER);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      queue.remove(submission);
+      throw new ServiceUnavailableException("Checkout was interrupted", RETRY_AFTER);
+    }
+  }
+
+  private record Submission(Supplier<PendingOrder> checkout,
+                            CompletableFuture<OrderRecord> outcome) {
+  }
+}
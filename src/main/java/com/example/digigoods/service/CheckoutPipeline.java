@@ -0,0 +1,233 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.OrderStatusResponse;
+import com.example.digigoods.exception.ServiceUnavailableException;
+import com.example.digigoods.model.OrderStatus;
+import com.example.digigoods.repository.OrderRecord;
+import com.example.digigoods.repository.OrderRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bounded in-process pipeline writing the orders of asynchronous checkouts.
+ *
+ * <p>A checkout takes a slot, then stock and discount uses, and hands the order over; worker
+ * threads write queued orders in batches, one transaction and one insert batch per table per
+ * batch. When every slot is taken, new checkouts are shed before they touch the database. If a
+ * batch fails, its orders are retried one by one, and an order that still cannot be written has
+ * its stock and discount uses given back.
+ */
+@Component
+public class CheckoutPipeline implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(CheckoutPipeline.class);
+  private static final long POLL_MILLIS = 100;
+
+  private final OrderRepository orderRepository;
+  private final ProductService productService;
+  private final DiscountService discountService;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+  private final int batchSize;
+  private final Duration retryAfter;
+
+  private final Semaphore slots;
+  private final BlockingQueue<PendingOrder> queue = new LinkedBlockingQueue<>();
+  private final Map<Long, PendingOrder> pending = new ConcurrentHashMap<>();
+  private final Cache<Long, PendingOrder> failed;
+  private final List<Thread> workers = new ArrayList<>();
+  private volatile boolean running = true;
+
+  /**
+   * Create the checkout pipeline.
+   *
+   * @param orderRepository the order repository
+   * @param productService the product service
+   * @param discountService the discount service
+   * @param transactionManager the transaction manager orders are written through
+   * @param enabled whether checkouts go through the pipeline
+   * @param capacity the maximum number of orders accepted but not yet written
+   * @param batchSize the maximum number of orders written per transaction
+   * @param workerCount the number of worker threads
+   * @param retryAfter the delay clients are asked to wait when the pipeline is full
+   * @param failedTtl how long the status of a failed order can be looked up
+   */
+  public CheckoutPipeline(OrderRepository orderRepository,
+                          ProductService productService,
+                          DiscountService discountService,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${checkout.async.enabled:false}") boolean enabled,
+                          @Value("${checkout.async.capacity:1000}") int capacity,
+                          @Value("${checkout.async.batch-size:100}") int batchSize,
+                          @Value("${checkout.async.workers:2}") int workerCount,
+                          @Value("${checkout.async.retry-after:1s}") Duration retryAfter,
+                          @Value("${checkout.async.failed-ttl:1h}") Duration failedTtl) {
+    this.orderRepository = orderRepository;
+    this.productService = productService;
+    this.discountService = discountService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.enabled = enabled;
+    this.batchSize = batchSize;
+    this.retryAfter = retryAfter;
+    this.slots = new Semaphore(capacity);
+    this.failed = Caffeine.newBuilder()
+        .expireAfterWrite(failedTtl)
+        .build();
+    if (enabled) {
+      for (int i = 0; i < workerCount; i++) {
+        Thread worker = new Thread(this::work, "checkout-pipeline-" + i);
+        worker.setDaemon(true);
+        worker.start();
+        workers.add(worker);
+      }
+    }
+  }
+
+  /**
+   * Check whether checkouts go through the pipeline.
+   *
+   * @return true if enabled
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Take a slot for one order, before its stock and discount uses are taken.
+   *
+   * @throws ServiceUnavailableException if the pipeline is full
+   */
+  public void acquireSlot() {
+    if (!running || !slots.tryAcquire()) {
+      throw new ServiceUnavailableException(retryAfter);
+    }
+  }
+
+  /**
+   * Give back a slot taken for an order that was not submitted.
+   */
+  public void releaseSlot() {
+    slots.release();
+  }
+
+  /**
+   * Hand over an order, on the slot taken for it, to be written.
+   *
+   * @param order the order whose stock and discount uses are taken
+   */
+  void submit(PendingOrder order) {
+    pending.put(order.order().id(), order);
+    queue.add(order);
+  }
+
+  /**
+   * Get the status of an order still known to the pipeline.
+   *
+   * @param orderId the order ID
+   * @param userId the ID of the user the order must belong to
+   * @return status if the order is pending or failed on this node
+   */
+  public Optional<OrderStatusResponse> getStatus(Long orderId, Long userId) {
+    PendingOrder order = pending.get(orderId);
+    OrderStatus status = OrderStatus.PENDING;
+    if (order == null) {
+      order = failed.getIfPresent(orderId);
+      status = OrderStatus.FAILED;
+    }
+    if (order == null || order.order().userId() != userId) {
+      return Optional.empty();
+    }
+    return Optional.of(new OrderStatusResponse(orderId, status, order.order().finalPrice()));
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    // Stop taking orders, and let the workers write those already accepted
+    running = false;
+    for (Thread worker : workers) {
+      worker.join(TimeUnit.SECONDS.toMillis(30));
+    }
+  }
+
+  private void work() {
+    List<PendingOrder> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        PendingOrder first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        write(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void write(List<PendingOrder> batch) {
+    try {
+      insert(batch);
+      batch.forEach(this::written);
+    } catch (RuntimeException e) {
+      log.warn("Writing a batch of {} orders failed, retrying one by one", batch.size(), e);
+      for (PendingOrder order : batch) {
+        try {
+          insert(List.of(order));
+          written(order);
+        } catch (RuntimeException orderFailure) {
+          fail(order, orderFailure);
+        }
+      }
+    }
+  }
+
+  private void insert(List<PendingOrder> batch) {
+    List<OrderRecord> orders = batch.stream()
+        .map(PendingOrder::order)
+        .toList();
+    transactionTemplate.executeWithoutResult(status -> orderRepository.insertOrders(orders));
+  }
+
+  private void written(PendingOrder order) {
+    pending.remove(order.order().id());
+    slots.release();
+  }
+
+  private void fail(PendingOrder order, RuntimeException cause) {
+    log.error("Order {} could not be written, giving back its stock and discount uses",
+        order.order().id(), cause);
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        productService.restoreStock(order.cart());
+        discountService.releaseDiscountUsage(order.discounts());
+      });
+    } catch (RuntimeException e) {
+      log.error("Giving back the stock and discount uses of order {} failed",
+          order.order().id(), e);
+    }
+    failed.put(order.order().id(), order);
+    pending.remove(order.order().id());
+    slots.release();
+  }
+}
@@ -0,0 +1,15 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.model.Product;
+import java.util.List;
+
+/**
+ * Everything a checkout reads, loaded once up front: the cart lines, the products they refer to
+ * and the discounts with their applicable products.
+ *
+ * @param cart the quantity per product
+ * @param products the product of each cart line, at the index of that line
+ * @param discounts the validated discounts
+ */
+record CheckoutPlan(Cart cart, List<Product> products, List<DiscountDefinition> discounts) {
+}
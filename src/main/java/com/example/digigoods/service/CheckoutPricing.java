@@ -0,0 +1,150 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.exception.ExcessiveDiscountException;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.OrderItem;
+import com.example.digigoods.model.Product;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pricing of checkout plans: product-specific discounts, then general discounts in order, then
+ * the maximum discount rule. Every discount amount is rounded half up to two decimals.
+ *
+ * <p>Plans are priced with {@link BigDecimal} arithmetic, or, when fixed-point pricing is
+ * enabled, by {@link FixedPointPricing} in long cents with the same results. Plans that cannot be
+ * priced exactly in cents are priced with {@link BigDecimal} either way.
+ */
+@Component
+public class CheckoutPricing {
+
+  static final BigDecimal MAX_DISCOUNT_PERCENTAGE = new BigDecimal("75.00");
+  private static final BigDecimal HUNDRED = new BigDecimal("100.00");
+
+  private final boolean fixedPoint;
+
+  /**
+   * Create the checkout pricing.
+   *
+   * @param fixedPoint whether plans are priced in long cents where possible
+   */
+  public CheckoutPricing(@Value("${checkout.pricing.fixed-point.enabled:false}")
+                         boolean fixedPoint) {
+    this.fixedPoint = fixedPoint;
+  }
+
+  /**
+   * Price a checkout plan.
+   *
+   * @param plan the checkout plan
+   * @return priced order
+   * @throws InsufficientStockException if a product has less stock than its line quantity
+   * @throws ExcessiveDiscountException if the discounts take off more than the maximum
+   */
+  PricedOrder price(CheckoutPlan plan) {
+    if (fixedPoint) {
+      PricedOrder priced = FixedPointPricing.price(plan);
+      if (priced != null) {
+        return priced;
+      }
+    }
+    return priceDecimal(plan);
+  }
+
+  /**
+   * Price a checkout plan with {@link BigDecimal} arithmetic.
+   *
+   * @param plan the checkout plan
+   * @return priced order
+   */
+  static PricedOrder priceDecimal(CheckoutPlan plan) {
+    // 4. Subtotal Calculation, Stock Check and Product-Specific Discounts
+    Subtotals subtotals = calculateSubtotals(plan);
+
+    // 5. General Discount Application
+    BigDecimal finalPrice = applyGeneralDiscounts(subtotals.discounted(),
+        discountsOfType(plan, DiscountType.GENERAL));
+
+    // 6. Maximum Discount Rule
+    validateMaximumDiscount(subtotals.original(), finalPrice);
+
+    return new PricedOrder(plan, subtotals.items(), subtotals.original(), finalPrice);
+  }
+
+  /**
+   * Get the amount a general discount takes off a price.
+   *
+   * @param price the price the discount applies to
+   * @param discount the general discount
+   * @return discount amount, rounded half up to two decimals
+   */
+  static BigDecimal generalDiscountAmount(BigDecimal price, DiscountDefinition discount) {
+    return price.multiply(discount.percentage()).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+  }
+
+  static List<DiscountDefinition> discountsOfType(CheckoutPlan plan, DiscountType type) {
+    return plan.discounts().stream()
+        .filter(d -> d.type() == type)
+        .toList();
+  }
+
+  private static Subtotals calculateSubtotals(CheckoutPlan plan) {
+    Cart cart = plan.cart();
+    DiscountRuleIndex discountRules = DiscountRuleIndex.compile(
+        discountsOfType(plan, DiscountType.PRODUCT_SPECIFIC), cart.productIds());
+    List<OrderItem> items = new ArrayList<>(cart.size());
+    BigDecimal original = BigDecimal.ZERO;
+    BigDecimal discounted = BigDecimal.ZERO;
+
+    // Every unit of a product gets the same discount, so price each line once
+    for (int line = 0; line < cart.size(); line++) {
+      Product product = plan.products().get(line);
+      int quantity = cart.quantity(line);
+      if (product.getStock() < quantity) {
+        throw new InsufficientStockException(product.getId(), quantity, product.getStock());
+      }
+
+      BigDecimal units = BigDecimal.valueOf(quantity);
+      BigDecimal linePrice = discountRules.discountedPrice(product.getId(), product.getPrice())
+          .multiply(units);
+      items.add(new OrderItem(product.getId(), quantity, product.getPrice(), linePrice));
+      original = original.add(product.getPrice().multiply(units));
+      discounted = discounted.add(linePrice);
+    }
+
+    return new Subtotals(items, original, discounted);
+  }
+
+  private static BigDecimal applyGeneralDiscounts(BigDecimal subtotal,
+                                                  List<DiscountDefinition> generalDiscounts) {
+    BigDecimal currentPrice = subtotal;
+
+    for (DiscountDefinition discount : generalDiscounts) {
+      currentPrice = currentPrice.subtract(generalDiscountAmount(currentPrice, discount));
+    }
+
+    return currentPrice;
+  }
+
+  private static void validateMaximumDiscount(BigDecimal originalSubtotal, BigDecimal finalPrice) {
+    BigDecimal totalDiscount = originalSubtotal.subtract(finalPrice);
+    BigDecimal discountPercentage = totalDiscount.multiply(HUNDRED)
+        .divide(originalSubtotal, 2, RoundingMode.HALF_UP);
+
+    if (discountPercentage.compareTo(MAX_DISCOUNT_PERCENTAGE) > 0) {
+      throw new ExcessiveDiscountException();
+    }
+  }
+
+  /**
+   * Priced lines of a cart, and its subtotal before any discount and after product-specific
+   * discounts.
+   */
+  private record Subtotals(List<OrderItem> items, BigDecimal original, BigDecimal discounted) {
+  }
+}
@@ -0,0 +1,91 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.IdempotencyKeyReusedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Node-local cache of checkouts submitted with an idempotency key, completed or still running.
+ *
+ * <p>The first submission of a key runs the checkout; concurrent duplicates wait for its outcome
+ * and later retries are answered from memory until the entry expires. A failed checkout is
+ * reported to the duplicates waiting on it and then forgotten, so that a retry runs it again. A
+ * submission of a known key with a different request hash is rejected.
+ */
+@Component
+public class CheckoutReplayCache {
+
+  private final Cache<ReplayKey, Submission> submissions;
+
+  /**
+   * Create the checkout replay cache.
+   *
+   * @param ttl how long a completed checkout is answered from memory
+   * @param maxSize the maximum number of checkouts kept in memory
+   */
+  public CheckoutReplayCache(@Value("${checkout.idempotency.replay-ttl:10m}") Duration ttl,
+                             @Value("${checkout.idempotency.replay-max-size:10000}")
+                             long maxSize) {
+    this.submissions = Caffeine.newBuilder()
+        .expireAfterWrite(ttl)
+        .maximumSize(maxSize)
+        .build();
+  }
+
+  /**
+   * Run a checkout once per user and idempotency key on this node.
+   *
+   * @param userId the ID of the user submitting the checkout
+   * @param idempotencyKey the idempotency key
+   * @param requestHash the hash of the normalized checkout request
+   * @param checkout the checkout to run if no submission of the key is known
+   * @return order response of the first submission
+   * @throws IdempotencyKeyReusedException if the key was submitted with a different request
+   */
+  public OrderResponse execute(Long userId, String idempotencyKey, String requestHash,
+                               Supplier<OrderResponse> checkout) {
+    ReplayKey key = new ReplayKey(userId, idempotencyKey);
+    Submission created = new Submission(requestHash, new CompletableFuture<>());
+    Submission existing = submissions.asMap().putIfAbsent(key, created);
+    if (existing != null) {
+      if (!existing.requestHash().equals(requestHash)) {
+        throw new IdempotencyKeyReusedException(idempotencyKey);
+      }
+      return await(existing.response());
+    }
+
+    try {
+      OrderResponse response = checkout.get();
+      created.response().complete(response);
+      return response;
+    } catch (RuntimeException | Error e) {
+      submissions.asMap().remove(key, created);
+      created.response().completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private static OrderResponse await(CompletableFuture<OrderResponse> response) {
+    try {
+      return response.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private record ReplayKey(Long userId, String idempotencyKey) {
+  }
+
+  private record Submission(String requestHash, CompletableFuture<OrderResponse> response) {
+  }
+}
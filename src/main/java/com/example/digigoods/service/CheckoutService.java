@@ -2,24 +2,41 @@ package com.example.digigoods.service;
 
 import com.example.digigoods.dto.CheckoutRequest;
 import com.example.digigoods.dto.OrderResponse;
-import com.example.digigoods.exception.ExcessiveDiscountException;
+import com.example.digigoods.dto.OrderStatusResponse;
+import com.example.digigoods.dto.QuoteDiscount;
+import com.example.digigoods.dto.QuoteLine;
+import com.example.digigoods.dto.QuoteRequest;
+import com.example.digigoods.dto.QuoteResponse;
+import com.example.digigoods.exception.IdempotencyKeyReusedException;
+import com.example.digigoods.exception.InvalidIdempotencyKeyException;
+import com.example.digigoods.exception.OrderNotFoundException;
+import com.example.digigoods.exception.ServiceUnavailableException;
 import com.example.digigoods.exception.UnauthorizedAccessException;
-import com.example.digigoods.model.Discount;
 import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.IdempotencyRecord;
 import com.example.digigoods.model.Order;
-import com.example.digigoods.model.Product;
-import com.example.digigoods.model.User;
+import com.example.digigoods.model.OrderItem;
+import com.example.digigoods.model.OrderStatus;
+import com.example.digigoods.repository.IdempotencyRecordRepository;
+import com.example.digigoods.repository.OrderRecord;
 import com.example.digigoods.repository.OrderRepository;
 import com.example.digigoods.repository.UserRepository;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service for checkout operations.
@@ -27,168 +44,399 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class CheckoutService {
 
-  private static final BigDecimal MAX_DISCOUNT_PERCENTAGE = new BigDecimal("75.00");
-  private static final BigDecimal HUNDRED = new BigDecimal("100.00");
+  private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+  private static final String ORDER_CREATED_MESSAGE = "Order created successfully!";
 
   private final ProductService productService;
   private final DiscountService discountService;
   private final OrderRepository orderRepository;
   private final UserRepository userRepository;
+  private final IdempotencyRecordRepository idempotencyRecordRepository;
+  private final CheckoutReplayCache checkoutReplayCache;
+  private final CheckoutPipeline checkoutPipeline;
+  private final OrderIdAllocator orderIdAllocator;
+  private final CheckoutCoordinator checkoutCoordinator;
+  private final CheckoutPricing checkoutPricing;
+  private final TransactionTemplate transactionTemplate;
 
+  /**
+   * Create the checkout service.
+   *
+   * @param productService the product service
+   * @param discountService the discount service
+   * @param orderRepository the order repository
+   * @param userRepository the user repository
+   * @param idempotencyRecordRepository the repository of checkouts completed under a key
+   * @param checkoutReplayCache the cache of checkouts submitted under a key on this node
+   * @param checkoutPipeline the pipeline writing the orders of asynchronous checkouts
+   * @param orderIdAllocator the allocator of IDs for orders written in batches
+   * @param checkoutCoordinator the coordinator group-committing concurrent checkouts
+   * @param checkoutPricing the pricing of checkout plans
+   * @param transactionManager the transaction manager the checkout commits through
+   */
   public CheckoutService(ProductService productService,
                          DiscountService discountService,
                          OrderRepository orderRepository,
-                         UserRepository userRepository) {
+                         UserRepository userRepository,
+                         IdempotencyRecordRepository idempotencyRecordRepository,
+                         CheckoutReplayCache checkoutReplayCache,
+                         CheckoutPipeline checkoutPipeline,
+                         OrderIdAllocator orderIdAllocator,
+                         CheckoutCoordinator checkoutCoordinator,
+                         CheckoutPricing checkoutPricing,
+                         PlatformTransactionManager transactionManager) {
     this.productService = productService;
     this.discountService = discountService;
     this.orderRepository = orderRepository;
     this.userRepository = userRepository;
+    this.idempotencyRecordRepository = idempotencyRecordRepository;
+    this.checkoutReplayCache = checkoutReplayCache;
+    this.checkoutPipeline = checkoutPipeline;
+    this.orderIdAllocator = orderIdAllocator;
+    this.checkoutCoordinator = checkoutCoordinator;
+    this.checkoutPricing = checkoutPricing;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
   }
 
   /**
    * Process checkout request.
    *
+   * <p>Discount codes are checked against the in-memory {@link DiscountRegistry} before a
+   * transaction is started, so that requests with unknown or inactive codes are rejected without
+   * taking a connection. Products are then read in a single query, and the cart is validated and
+   * priced in one pass over its lines. Stock and discount uses are taken by conditional updates,
+   * which lock exactly the rows they change, before the order is written; the user and discounts
+   * are referenced by ID without being loaded. When group commit is enabled, the checkout is
+   * committed by the {@link CheckoutCoordinator} together with concurrent ones.
+   *
    * @param request the checkout request
    * @param authenticatedUserId the ID of the authenticated user
    * @return order response
    */
-  @Transactional
   public OrderResponse processCheckout(CheckoutRequest request, Long authenticatedUserId) {
+    return processCheckout(request, authenticatedUserId, null);
+  }
+
+  /**
+   * Process checkout request at most once per user and idempotency key.
+   *
+   * <p>A retry of a completed checkout is answered from memory, or from the stored outcome if this
+   * node has not seen the key; a duplicate submitted while the first is still running waits for
+   * its outcome. A key is bound to the cart and discount codes it was first submitted with, so
+   * that reusing it for a different request fails instead of replaying the first order. Without
+   * a key, every request is a new checkout.
+   *
+   * @param request the checkout request
+   * @param authenticatedUserId the ID of the authenticated user
+   * @param idempotencyKey the idempotency key, or {@code null}
+   * @return order response of the first submission of the key
+   * @throws InvalidIdempotencyKeyException if the key is blank or too long
+   * @throws IdempotencyKeyReusedException if the key was submitted with a different request
+   */
+  public OrderResponse processCheckout(CheckoutRequest request, Long authenticatedUserId,
+                                       String idempotencyKey) {
     // 1. Authentication & Authorization
     validateUserAuthorization(request.getUserId(), authenticatedUserId);
 
-    // 2. Product Validation
-    List<Product> products = productService.getProductsByIds(request.getProductIds());
-
-    // 3. Original Subtotal Calculation
-    BigDecimal originalSubtotal = calculateOriginalSubtotal(request.getProductIds(), products);
+    if (idempotencyKey == null) {
+      return placeOrder(request, authenticatedUserId, null, null);
+    }
+    validateIdempotencyKey(idempotencyKey);
+    String requestHash = requestHash(Cart.of(request.getProductIds(), request.getLines()),
+        request.getDiscountCodes());
+    return checkoutReplayCache.execute(authenticatedUserId, idempotencyKey, requestHash,
+        () -> replayOrPlaceOrder(request, authenticatedUserId, idempotencyKey, requestHash));
+  }
 
-    // 4. Discount Validation
-    List<Discount> discounts = discountService.validateAndGetDiscounts(request.getDiscountCodes());
+  /**
+   * Check whether checkouts are submitted to the {@link CheckoutPipeline} rather than written
+   * while the request waits.
+   *
+   * @return true if checkouts are asynchronous
+   */
+  public boolean isAsync() {
+    return checkoutPipeline.isEnabled();
+  }
 
-    // 5. Discount Application
-    BigDecimal finalPrice = applyDiscounts(request.getProductIds(), products, discounts,
-        originalSubtotal);
+  /**
+   * Submit checkout request to the checkout pipeline.
+   *
+   * <p>The request is validated and priced, and its stock and discount uses are taken, as in
+   * {@link #processCheckout(CheckoutRequest, Long)}; the order itself is written later, in a batch
+   * with other orders, under the ID returned here.
+   *
+   * @param request the checkout request
+   * @param authenticatedUserId the ID of the authenticated user
+   * @return ID and pending status of the order
+   * @throws ServiceUnavailableException if the pipeline is full
+   */
+  public OrderStatusResponse submitCheckout(CheckoutRequest request, Long authenticatedUserId) {
+    // 1. Authentication & Authorization
+    validateUserAuthorization(request.getUserId(), authenticatedUserId);
 
-    // 6. Maximum Discount Rule
-    validateMaximumDiscount(originalSubtotal, finalPrice);
+    // 2. Cart and Discount Validation
+    Cart cart = Cart.of(request.getProductIds(), request.getLines());
+    List<DiscountDefinition> discounts =
+        discountService.validateAndGetDiscounts(request.getDiscountCodes());
+
+    // Take a slot before any stock, so that a full pipeline sheds load before the database
+    checkoutPipeline.acquireSlot();
+    PendingOrder order;
+    try {
+      order = transactionTemplate.execute(
+          status -> reserveOrder(cart, discounts, authenticatedUserId));
+    } catch (RuntimeException e) {
+      checkoutPipeline.releaseSlot();
+      throw e;
+    }
+    checkoutPipeline.submit(order);
+    return new OrderStatusResponse(order.order().id(), OrderStatus.PENDING,
+        order.order().finalPrice());
+  }
 
-    // 7. Final Commit
-    commitTransaction(request, products, discounts, originalSubtotal, finalPrice);
+  /**
+   * Price a cart without placing an order.
+   *
+   * <p>The cart is priced like a checkout, against the products of the catalog snapshot and the
+   * discounts of the {@link DiscountRegistry}. A quote takes no lock, opens no transaction and,
+   * while both are fresh, sends no query. Stock is checked against the snapshot, and remaining
+   * discount uses are not checked at all, so a checkout may still fail where its quote did not.
+   *
+   * @param request the quote request
+   * @return priced lines, the amount taken off by each discount, and the totals
+   */
+  public QuoteResponse quote(QuoteRequest request) {
+    Cart cart = Cart.of(request.getProductIds(), request.getLines());
+    List<DiscountDefinition> discounts =
+        discountService.validateAndGetDiscounts(request.getDiscountCodes());
+    PricedOrder priced = checkoutPricing.price(
+        new CheckoutPlan(cart, productService.getCachedProducts(cart), discounts));
+
+    List<QuoteLine> lines = priced.items().stream()
+        .map(item -> new QuoteLine(item.getProductId(), item.getQuantity(), item.getUnitPrice(),
+            item.getLinePrice()))
+        .toList();
+    return new QuoteResponse(lines, quoteDiscounts(priced), priced.originalSubtotal(),
+        priced.finalPrice());
+  }
 
-    return new OrderResponse("Order created successfully!", finalPrice);
+  /**
+   * Get the processing status of an order of the authenticated user.
+   *
+   * @param orderId the order ID
+   * @param authenticatedUserId the ID of the authenticated user
+   * @return status of the order
+   * @throws OrderNotFoundException if the user has no order with this ID
+   */
+  public OrderStatusResponse getOrderStatus(Long orderId, Long authenticatedUserId) {
+    return checkoutPipeline.getStatus(orderId, authenticatedUserId)
+        .or(() -> orderRepository.findFinalPrice(orderId, authenticatedUserId)
+            .map(finalPrice -> new OrderStatusResponse(orderId, OrderStatus.CREATED, finalPrice)))
+        .orElseThrow(() -> new OrderNotFoundException(orderId));
   }
 
-  private void validateUserAuthorization(Long requestUserId, Long authenticatedUserId) {
-    if (!requestUserId.equals(authenticatedUserId)) {
-      throw new UnauthorizedAccessException("User cannot place order for another user");
+  private OrderResponse replayOrPlaceOrder(CheckoutRequest request, Long userId,
+                                           String idempotencyKey, String requestHash) {
+    // The key may have been completed on another node, or before this node started
+    Optional<OrderResponse> completed = findCompleted(userId, idempotencyKey, requestHash);
+    if (completed.isPresent()) {
+      return completed.get();
     }
-  }
 
-  private BigDecimal calculateOriginalSubtotal(List<Long> productIds, List<Product> products) {
-    Map<Long, Product> productMap = products.stream()
-        .collect(Collectors.toMap(Product::getId, Function.identity()));
+    try {
+      return placeOrder(request, userId, idempotencyKey, requestHash);
+    } catch (DataIntegrityViolationException e) {
+      // Another node completed the same key first, and this checkout was rolled back
+      return findCompleted(userId, idempotencyKey, requestHash).orElseThrow(() -> e);
+    }
+  }
 
-    return productIds.stream()
-        .map(productMap::get)
-        .map(Product::getPrice)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
+  private Optional<OrderResponse> findCompleted(Long userId, String idempotencyKey,
+                                                String requestHash) {
+    return idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+        .map(record -> {
+          // Records stored before request hashes were kept are replayed as they are
+          if (record.getRequestHash() != null && !record.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(idempotencyKey);
+          }
+          return new OrderResponse(record.getMessage(), record.getFinalPrice());
+        });
   }
 
-  private BigDecimal applyDiscounts(List<Long> productIds, List<Product> products,
-                                    List<Discount> discounts,
-                                    BigDecimal originalSubtotal) {
-    Map<Long, Product> productMap = products.stream()
-        .collect(Collectors.toMap(Product::getId, Function.identity()));
+  private OrderResponse placeOrder(CheckoutRequest request, Long userId, String idempotencyKey,
+                                   String requestHash) {
+    // 2. Cart and Discount Validation
+    Cart cart = Cart.of(request.getProductIds(), request.getLines());
+    List<DiscountDefinition> discounts =
+        discountService.validateAndGetDiscounts(request.getDiscountCodes());
 
-    // Separate discounts by type
-    List<Discount> productSpecificDiscounts = discounts.stream()
-        .filter(d -> d.getType() == DiscountType.PRODUCT_SPECIFIC)
-        .toList();
+    if (idempotencyKey == null && checkoutCoordinator.isEnabled()) {
+      OrderRecord order = checkoutCoordinator.commit(() -> reserveOrder(cart, discounts, userId));
+      return new OrderResponse(ORDER_CREATED_MESSAGE, order.finalPrice());
+    }
+    return transactionTemplate.execute(
+        status -> checkout(cart, discounts, userId, idempotencyKey, requestHash));
+  }
 
-    List<Discount> generalDiscounts = discounts.stream()
-        .filter(d -> d.getType() == DiscountType.GENERAL)
-        .toList();
+  private OrderResponse checkout(Cart cart, List<DiscountDefinition> discounts,
+                                 Long authenticatedUserId, String idempotencyKey,
+                                 String requestHash) {
+    PricedOrder priced = priceOrder(cart, discounts);
 
-    // Apply product-specific discounts first
-    BigDecimal intermediateSubtotal = applyProductSpecificDiscounts(
-        productIds, productMap, productSpecificDiscounts);
+    // 7. Final Commit
+    Order order = commitTransaction(priced, authenticatedUserId);
+    if (idempotencyKey != null) {
+      idempotencyRecordRepository.save(new IdempotencyRecord(null, authenticatedUserId,
+          idempotencyKey, requestHash, order.getId(), ORDER_CREATED_MESSAGE, priced.finalPrice(),
+          null));
+    }
 
-    // Apply general discounts to intermediate subtotal
-    return applyGeneralDiscounts(intermediateSubtotal, generalDiscounts);
+    return new OrderResponse(ORDER_CREATED_MESSAGE, priced.finalPrice());
   }
 
-  private BigDecimal applyProductSpecificDiscounts(List<Long> productIds,
-                                                   Map<Long, Product> productMap,
-                                                   List<Discount> productSpecificDiscounts) {
-    BigDecimal total = BigDecimal.ZERO;
+  private PendingOrder reserveOrder(Cart cart, List<DiscountDefinition> discounts,
+                                    Long authenticatedUserId) {
+    PricedOrder priced = priceOrder(cart, discounts);
 
-    for (Long productId : productIds) {
-      Product product = productMap.get(productId);
-      BigDecimal itemPrice = product.getPrice();
+    // 7. Reservation; the order itself is written in a batch with other orders
+    takeStockAndDiscountUses(priced.plan());
+    OrderRecord order = new OrderRecord(orderIdAllocator.nextId(), authenticatedUserId,
+        priced.originalSubtotal(), priced.finalPrice(), LocalDateTime.now(), priced.items(),
+        discounts.stream().mapToLong(DiscountDefinition::id).toArray());
+    return new PendingOrder(order, cart, discounts);
+  }
 
-      // Find applicable discounts for this product
-      BigDecimal totalDiscountPercentage = productSpecificDiscounts.stream()
-          .filter(discount -> discount.getApplicableProducts().contains(product))
-          .map(Discount::getPercentage)
-          .reduce(BigDecimal.ZERO, BigDecimal::add);
+  private PricedOrder priceOrder(Cart cart, List<DiscountDefinition> discounts) {
+    // 3. Product Validation
+    CheckoutPlan plan = new CheckoutPlan(cart, productService.getProducts(cart), discounts);
 
-      // Apply discount
-      if (totalDiscountPercentage.compareTo(BigDecimal.ZERO) > 0) {
-        BigDecimal discountAmount = itemPrice.multiply(totalDiscountPercentage)
-            .divide(HUNDRED, 2, RoundingMode.HALF_UP);
-        itemPrice = itemPrice.subtract(discountAmount);
-      }
+    // 4. - 6. Subtotals and Stock Check, Discounts, Maximum Discount Rule
+    return checkoutPricing.price(plan);
+  }
 
-      total = total.add(itemPrice);
+  private void validateUserAuthorization(Long requestUserId, Long authenticatedUserId) {
+    if (!requestUserId.equals(authenticatedUserId)) {
+      throw new UnauthorizedAccessException("User cannot place order for another user");
     }
-
-    return total;
   }
 
-  private BigDecimal applyGeneralDiscounts(BigDecimal subtotal, List<Discount> generalDiscounts) {
-    BigDecimal currentPrice = subtotal;
-
-    for (Discount discount : generalDiscounts) {
-      BigDecimal discountAmount = currentPrice.multiply(discount.getPercentage())
-          .divide(HUNDRED, 2, RoundingMode.HALF_UP);
-      currentPrice = currentPrice.subtract(discountAmount);
+  private void validateIdempotencyKey(String idempotencyKey) {
+    if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+      throw new InvalidIdempotencyKeyException("Idempotency key must be between 1 and "
+          + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
     }
+  }
 
-    return currentPrice;
+  /**
+   * Hash a checkout request in normalized form: the cart's lines in product ID order, with
+   * repeated IDs and lines of the same product added up, then the discount codes in the order
+   * given, as that order decides how general discounts compound.
+   *
+   * @param cart the cart
+   * @param discountCodes the discount codes, may be null
+   * @return hex-encoded SHA-256 hash
+   */
+  static String requestHash(Cart cart, List<String> discountCodes) {
+    StringBuilder normalized = new StringBuilder();
+    for (int line = 0; line < cart.size(); line++) {
+      normalized.append(cart.productId(line)).append('x').append(cart.quantity(line)).append(',');
+    }
+    normalized.append(';');
+    if (discountCodes != null) {
+      // Length-prefixed, so that no code can pass for two
+      discountCodes.forEach(code -> normalized.append(code.length()).append(':').append(code));
+    }
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+          .digest(normalized.toString().getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
   }
 
-  private void validateMaximumDiscount(BigDecimal originalSubtotal, BigDecimal finalPrice) {
-    BigDecimal totalDiscount = originalSubtotal.subtract(finalPrice);
-    BigDecimal discountPercentage = totalDiscount.multiply(HUNDRED)
-        .divide(originalSubtotal, 2, RoundingMode.HALF_UP);
+  /**
+   * Split the savings of a priced order between the discounts that made them.
+   *
+   * <p>Product-specific discounts applying to the same product are priced together, so the
+   * savings on such a line are shared in proportion to their percentages, the last discount
+   * taking the rounding remainder. General discounts are replayed in order on the subtotal after
+   * product-specific discounts. The amounts add up to the difference between the original
+   * subtotal and the final price.
+   */
+  private List<QuoteDiscount> quoteDiscounts(PricedOrder priced) {
+    List<DiscountDefinition> discounts = priced.plan().discounts();
+    BigDecimal[] amounts = new BigDecimal[discounts.size()];
+    Arrays.fill(amounts, BigDecimal.ZERO);
+
+    BigDecimal discountedSubtotal = BigDecimal.ZERO;
+    List<Integer> applicable = new ArrayList<>();
+    for (OrderItem item : priced.items()) {
+      discountedSubtotal = discountedSubtotal.add(item.getLinePrice());
+      BigDecimal savings = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()))
+          .subtract(item.getLinePrice());
+      if (savings.signum() == 0) {
+        continue;
+      }
+
+      applicable.clear();
+      BigDecimal totalPercentage = BigDecimal.ZERO;
+      for (int i = 0; i < discounts.size(); i++) {
+        DiscountDefinition discount = discounts.get(i);
+        if (discount.type() == DiscountType.PRODUCT_SPECIFIC
+            && Arrays.binarySearch(discount.applicableProductIds(), item.getProductId()) >= 0) {
+          applicable.add(i);
+          totalPercentage = totalPercentage.add(discount.percentage());
+        }
+      }
 
-    if (discountPercentage.compareTo(MAX_DISCOUNT_PERCENTAGE) > 0) {
-      throw new ExcessiveDiscountException();
+      BigDecimal remaining = savings;
+      for (int k = 0; k < applicable.size() - 1; k++) {
+        int i = applicable.get(k);
+        BigDecimal share = savings.multiply(discounts.get(i).percentage())
+            .divide(totalPercentage, 2, RoundingMode.HALF_UP);
+        amounts[i] = amounts[i].add(share);
+        remaining = remaining.subtract(share);
+      }
+      int last = applicable.get(applicable.size() - 1);
+      amounts[last] = amounts[last].add(remaining);
     }
-  }
 
-  private void commitTransaction(CheckoutRequest request, List<Product> products,
-                                 List<Discount> discounts, BigDecimal originalSubtotal,
-                                 BigDecimal finalPrice) {
-    // Get user
-    User user = userRepository.findById(request.getUserId())
-        .orElseThrow(() -> new RuntimeException("User not found"));
+    BigDecimal currentPrice = discountedSubtotal;
+    for (int i = 0; i < discounts.size(); i++) {
+      if (discounts.get(i).type() == DiscountType.GENERAL) {
+        amounts[i] = CheckoutPricing.generalDiscountAmount(currentPrice, discounts.get(i));
+        currentPrice = currentPrice.subtract(amounts[i]);
+      }
+    }
 
-    // Create order
-    Order order = new Order();
-    order.setUser(user);
-    order.setProducts(new HashSet<>(products));
-    order.setAppliedDiscounts(new HashSet<>(discounts));
-    order.setOriginalSubtotal(originalSubtotal);
-    order.setFinalPrice(finalPrice);
+    List<QuoteDiscount> quoteDiscounts = new ArrayList<>(discounts.size());
+    for (int i = 0; i < discounts.size(); i++) {
+      DiscountDefinition discount = discounts.get(i);
+      quoteDiscounts.add(new QuoteDiscount(discount.code(), discount.type(),
+          discount.percentage(), amounts[i]));
+    }
+    return quoteDiscounts;
+  }
 
-    orderRepository.save(order);
+  private Order commitTransaction(PricedOrder priced, Long userId) {
+    // Take stock and discount uses first, so that a failure leaves no order to roll back
+    CheckoutPlan plan = priced.plan();
+    takeStockAndDiscountUses(plan);
 
-    // Update product stock
-    productService.validateAndUpdateStock(request.getProductIds());
+    // Create order; the user and discounts are referenced by ID and not loaded
+    Order order = new Order();
+    order.setUser(userRepository.getReferenceById(userId));
+    order.setProducts(new HashSet<>(plan.products()));
+    order.setAppliedDiscounts(discountService.getReferences(plan.discounts()));
+    order.setItems(priced.items());
+    order.setOriginalSubtotal(priced.originalSubtotal());
+    order.setFinalPrice(priced.finalPrice());
+
+    return orderRepository.save(order);
+  }
 
-    // Update discount usage
-    discountService.updateDiscountUsage(discounts);
+  private void takeStockAndDiscountUses(CheckoutPlan plan) {
+    productService.updateStock(plan.cart(), plan.products());
+    discountService.updateDiscountUsage(plan.discounts());
   }
 }
@@ -0,0 +1,41 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.Product;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Immutable definition of a discount, as held by {@link DiscountRegistry}. Remaining uses are not
+ * part of it: they change with every redemption and only live in the database.
+ *
+ * @param id the discount ID
+ * @param code the discount code
+ * @param percentage the percentage off
+ * @param type the discount type
+ * @param validFrom the first day the discount is valid
+ * @param validUntil the last day the discount is valid
+ * @param applicableProductIds the IDs of the products a product-specific discount applies to;
+ *                             must not be modified
+ */
+public record DiscountDefinition(Long id, String code, BigDecimal percentage, DiscountType type,
+                                 LocalDate validFrom, LocalDate validUntil,
+                                 long[] applicableProductIds) {
+
+  /**
+   * Create the definition of a discount entity.
+   *
+   * @param discount the discount entity, with its applicable products loaded
+   * @return discount definition
+   */
+  public static DiscountDefinition of(Discount discount) {
+    long[] productIds = discount.getApplicableProducts().stream()
+        .map(Product::getId)
+        .mapToLong(Long::longValue)
+        .sorted()
+        .toArray();
+    return new DiscountDefinition(discount.getId(), discount.getCode(), discount.getPercentage(),
+        discount.getType(), discount.getValidFrom(), discount.getValidUntil(), productIds);
+  }
+}
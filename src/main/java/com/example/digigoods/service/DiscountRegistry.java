@@ -0,0 +1,256 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.exception.InvalidDiscountException;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.repository.DiscountProductLink;
+import com.example.digigoods.repository.DiscountRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Node-local registry of every discount definition, so that discount codes are validated without
+ * a query.
+ *
+ * <p>The registry is loaded at startup and reloaded on the first lookup after a discount changed
+ * through this node, or once it is older than the configured maximum age, which bounds how long
+ * changes made elsewhere go unseen. While one lookup reloads it, the others keep using the
+ * previous registry; they only wait when none was loaded yet. Whether a code is active is worked
+ * out once per day rather than per lookup: a scheduler flips codes to active or expired exactly
+ * at the start of the day their validity begins or ends.
+ */
+@Component
+public class DiscountRegistry implements AutoCloseable {
+
+  /**
+   * Validity of a discount on a given day.
+   */
+  enum Status {
+    NOT_YET_VALID,
+    ACTIVE,
+    EXPIRED
+  }
+
+  private final DiscountRepository discountRepository;
+  private final Duration maxAge;
+  private final Clock clock;
+  private final ScheduledExecutorService scheduler;
+
+  private final AtomicLong generation = new AtomicLong();
+  private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+  private final ReentrantLock reloadLock = new ReentrantLock();
+  private ScheduledFuture<?> nextFlip;
+
+  /**
+   * Create the discount registry.
+   *
+   * @param discountRepository the discount repository
+   * @param maxAge how long the registry is used before it is reloaded regardless of changes
+   */
+  @Autowired
+  public DiscountRegistry(DiscountRepository discountRepository,
+                          @Value("${discount.registry.max-age:5m}") Duration maxAge) {
+    this(discountRepository, maxAge, Clock.systemDefaultZone());
+  }
+
+  DiscountRegistry(DiscountRepository discountRepository, Duration maxAge, Clock clock) {
+    this.discountRepository = discountRepository;
+    this.maxAge = maxAge;
+    this.clock = clock;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "discount-registry-flip");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Load the registry once the application is ready.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    current();
+  }
+
+  /**
+   * Get the definition of a discount that is valid today.
+   *
+   * @param code the discount code
+   * @return discount definition
+   * @throws InvalidDiscountException if the code is unknown, not yet valid or expired
+   */
+  public DiscountDefinition getActive(String code) {
+    Snapshot current = current();
+    DiscountDefinition definition = current.definitions().get(code);
+    if (definition == null) {
+      throw new InvalidDiscountException(code, "discount code not found");
+    }
+    return switch (current.statuses().get(code)) {
+      case NOT_YET_VALID -> throw new InvalidDiscountException(code, "discount is not yet valid");
+      case EXPIRED -> throw new InvalidDiscountException(code, "discount has expired");
+      case ACTIVE -> definition;
+    };
+  }
+
+  /**
+   * Mark the registry as stale, so that the next lookup reloads it. Inside a transaction the
+   * registry is marked stale again once the transaction completes.
+   */
+  public void invalidate() {
+    generation.incrementAndGet();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          generation.incrementAndGet();
+        }
+      });
+    }
+  }
+
+  /**
+   * Get the instant of the next scheduled status flip.
+   *
+   * @return next flip, or {@code null} if no discount changes status in the future
+   */
+  Instant nextFlipAt() {
+    return current().nextFlipAt();
+  }
+
+  /**
+   * Recompute every status for the current day. Runs on the scheduler at each date boundary.
+   */
+  synchronized void flip() {
+    Snapshot flipped = snapshot.updateAndGet(current -> current == null ? null
+        : Snapshot.of(current.generation(), current.loadedAt(), current.definitions(),
+            LocalDate.now(clock), clock));
+    if (flipped != null) {
+      schedule(flipped);
+    }
+  }
+
+  private Snapshot current() {
+    Snapshot current = snapshot.get();
+    if (isFresh(current)) {
+      return current;
+    }
+
+    // Only one thread reloads; the others keep using the previous snapshot meanwhile rather than
+    // queueing behind a full load. They only wait when there is nothing to use.
+    if (current != null && !reloadLock.tryLock()) {
+      return current;
+    }
+    if (current == null) {
+      reloadLock.lock();
+    }
+    try {
+      current = snapshot.get();
+      if (isFresh(current)) {
+        return current;
+      }
+      current = loadSnapshot();
+      snapshot.set(current);
+      schedule(current);
+      return current;
+    } finally {
+      reloadLock.unlock();
+    }
+  }
+
+  private boolean isFresh(Snapshot current) {
+    return current != null
+        && current.generation() == generation.get()
+        && current.loadedAt().plus(maxAge).isAfter(clock.instant());
+  }
+
+  private Snapshot loadSnapshot() {
+    // Read the generation first: a change committed while loading leaves the snapshot stale
+    long loadGeneration = generation.get();
+    Map<Long, long[]> productIds = discountRepository.findAllProductLinks().stream()
+        .collect(Collectors.groupingBy(DiscountProductLink::discountId,
+            Collectors.collectingAndThen(Collectors.toList(), links -> links.stream()
+                .mapToLong(DiscountProductLink::productId)
+                .sorted()
+                .toArray())));
+
+    Map<String, DiscountDefinition> definitions = new HashMap<>();
+    List<Discount> discounts = discountRepository.findAll();
+    for (Discount discount : discounts) {
+      definitions.put(discount.getCode(), new DiscountDefinition(discount.getId(),
+          discount.getCode(), discount.getPercentage(), discount.getType(),
+          discount.getValidFrom(), discount.getValidUntil(),
+          productIds.getOrDefault(discount.getId(), new long[0])));
+    }
+    return Snapshot.of(loadGeneration, clock.instant(), Map.copyOf(definitions),
+        LocalDate.now(clock), clock);
+  }
+
+  private synchronized void schedule(Snapshot current) {
+    if (nextFlip != null) {
+      nextFlip.cancel(false);
+      nextFlip = null;
+    }
+    if (current.nextFlipAt() != null && !scheduler.isShutdown()) {
+      long delay = Math.max(0, Duration.between(clock.instant(), current.nextFlipAt()).toMillis());
+      nextFlip = scheduler.schedule(this::flip, delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+
+  /**
+   * Definitions with their statuses on a given day.
+   */
+  private record Snapshot(long generation, Instant loadedAt,
+                          Map<String, DiscountDefinition> definitions,
+                          Map<String, Status> statuses, Instant nextFlipAt) {
+
+    static Snapshot of(long generation, Instant loadedAt,
+                       Map<String, DiscountDefinition> definitions, LocalDate today, Clock clock) {
+      Map<String, Status> statuses = new HashMap<>();
+      LocalDate nextBoundary = null;
+      for (DiscountDefinition definition : definitions.values()) {
+        LocalDate boundary;
+        if (today.isBefore(definition.validFrom())) {
+          statuses.put(definition.code(), Status.NOT_YET_VALID);
+          boundary = definition.validFrom();
+        } else if (today.isAfter(definition.validUntil())) {
+          statuses.put(definition.code(), Status.EXPIRED);
+          boundary = null;
+        } else {
+          statuses.put(definition.code(), Status.ACTIVE);
+          boundary = definition.validUntil().plusDays(1);
+        }
+        if (boundary != null && (nextBoundary == null || boundary.isBefore(nextBoundary))) {
+          nextBoundary = boundary;
+        }
+      }
+      Instant nextFlipAt = nextBoundary != null
+          ? nextBoundary.atStartOfDay(clock.getZone()).toInstant()
+          : null;
+      return new Snapshot(generation, loadedAt, definitions, Map.copyOf(statuses), nextFlipAt);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.model.Discount;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener reloading the discount registry when a discount changes, and letting the
+ * use allocator reserve its code again.
+ */
+@Component
+public class DiscountRegistryInvalidationListener {
+
+  // Resolved lazily: the registry depends on the repositories, which depend on this listener
+  private final ObjectProvider<DiscountRegistry> discountRegistry;
+  private final ObjectProvider<DiscountUseAllocator> discountUseAllocator;
+
+  public DiscountRegistryInvalidationListener(ObjectProvider<DiscountRegistry> discountRegistry,
+                                              ObjectProvider<DiscountUseAllocator>
+                                                  discountUseAllocator) {
+    this.discountRegistry = discountRegistry;
+    this.discountUseAllocator = discountUseAllocator;
+  }
+
+  /**
+   * Invalidate the registry for an added, changed or removed discount.
+   *
+   * @param discount the discount
+   */
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void onDiscountChanged(Discount discount) {
+    discountRegistry.getObject().invalidate();
+    discountUseAllocator.getObject().discountChanged(discount.getCode());
+  }
+}
@@ -0,0 +1,149 @@
+package com.example.digigoods.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Product-specific discounts compiled into a lookup from product ID to the total percentage off.
+ *
+ * <p>Built once per checkout for the products in the cart, as an open-addressing hash table keyed
+ * by primitive product IDs. Pricing a cart is then a single pass with one table probe per line
+ * instead of a scan of every discount, and no product entity is ever hashed.
+ *
+ * <p>Percentages are also summed in basis points for {@link FixedPointPricing}, as long as every
+ * percentage has at most two decimals.
+ */
+public final class DiscountRuleIndex {
+
+  private static final BigDecimal HUNDRED = new BigDecimal("100.00");
+  private static final long EMPTY_SLOT = Long.MIN_VALUE;
+  private static final DiscountRuleIndex EMPTY = new DiscountRuleIndex(1);
+
+  private final long[] productIds;
+  private final BigDecimal[] percentages;
+  private final long[] basisPoints;
+  private final int mask;
+  private boolean exactInBasisPoints = true;
+
+  private DiscountRuleIndex(int expectedSize) {
+    // Keep the table at most half full so that probe sequences stay short
+    int capacity = Integer.highestOneBit(Math.max(expectedSize, 1) * 2 - 1) << 1;
+    this.productIds = new long[capacity];
+    this.percentages = new BigDecimal[capacity];
+    this.basisPoints = new long[capacity];
+    this.mask = capacity - 1;
+    Arrays.fill(productIds, EMPTY_SLOT);
+  }
+
+  /**
+   * Compile product-specific discounts into an index covering the given products. Percentages of
+   * several discounts applying to the same product add up.
+   *
+   * @param productSpecificDiscounts the product-specific discounts
+   * @param productIds the IDs of the products that will be priced
+   * @return discount rule index
+   */
+  public static DiscountRuleIndex compile(List<DiscountDefinition> productSpecificDiscounts,
+                                          long[] productIds) {
+    if (productSpecificDiscounts.isEmpty() || productIds.length == 0) {
+      return EMPTY;
+    }
+
+    DiscountRuleIndex index = new DiscountRuleIndex(productIds.length);
+    for (long productId : productIds) {
+      int slot = index.slotOf(productId);
+      index.productIds[slot] = productId;
+      index.percentages[slot] = BigDecimal.ZERO;
+    }
+
+    // Products outside the cart find an empty slot and are skipped
+    for (DiscountDefinition discount : productSpecificDiscounts) {
+      long discountBasisPoints = 0;
+      try {
+        discountBasisPoints = toBasisPoints(discount.percentage());
+      } catch (ArithmeticException e) {
+        index.exactInBasisPoints = false;
+      }
+      for (long productId : discount.applicableProductIds()) {
+        int slot = index.slotOf(productId);
+        if (index.percentages[slot] != null) {
+          index.percentages[slot] = index.percentages[slot].add(discount.percentage());
+          index.basisPoints[slot] += discountBasisPoints;
+        }
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Get the total percentage off a product.
+   *
+   * @param productId the product ID
+   * @return total percentage, zero if no discount applies
+   */
+  public BigDecimal percentageFor(long productId) {
+    BigDecimal percentage = percentages[slotOf(productId)];
+    return percentage != null ? percentage : BigDecimal.ZERO;
+  }
+
+  /**
+   * Get the total percentage off a product in basis points, hundredths of a percent. Only
+   * meaningful if {@link #isExactInBasisPoints()}.
+   *
+   * @param productId the product ID
+   * @return total basis points, zero if no discount applies
+   */
+  public long basisPointsFor(long productId) {
+    return basisPoints[slotOf(productId)];
+  }
+
+  /**
+   * Check whether every percentage of the index is a whole number of basis points.
+   *
+   * @return true if {@link #basisPointsFor(long)} is exact
+   */
+  public boolean isExactInBasisPoints() {
+    return exactInBasisPoints;
+  }
+
+  /**
+   * Convert a percentage to basis points.
+   *
+   * @param percentage the percentage
+   * @return basis points
+   * @throws ArithmeticException if the percentage has more than two decimals
+   */
+  static long toBasisPoints(BigDecimal percentage) {
+    return percentage.movePointRight(2).longValueExact();
+  }
+
+  /**
+   * Get the price of one unit of a product after its product-specific discounts.
+   *
+   * @param productId the product ID
+   * @param price the undiscounted unit price
+   * @return discounted unit price
+   */
+  public BigDecimal discountedPrice(long productId, BigDecimal price) {
+    BigDecimal percentage = percentageFor(productId);
+    if (percentage.signum() <= 0) {
+      return price;
+    }
+    BigDecimal discountAmount = price.multiply(percentage)
+        .divide(HUNDRED, 2, RoundingMode.HALF_UP);
+    return price.subtract(discountAmount);
+  }
+
+  /**
+   * Find the slot holding a product ID, or the empty slot where it would be inserted.
+   */
+  private int slotOf(long productId) {
+    int slot = Long.hashCode(productId * 0x9E3779B97F4A7C15L) & mask;
+    while (productIds[slot] != productId && productIds[slot] != EMPTY_SLOT) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+}
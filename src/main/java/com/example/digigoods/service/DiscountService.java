@@ -3,9 +3,11 @@ package com.example.digigoods.service;
 import com.example.digigoods.exception.InvalidDiscountException;
 import com.example.digigoods.model.Discount;
 import com.example.digigoods.repository.DiscountRepository;
-import java.time.LocalDate;
 import java.util.List;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Service for discount operations.
@@ -14,9 +16,22 @@ import org.springframework.stereotype.Service;
 public class DiscountService {
 
   private final DiscountRepository discountRepository;
+  private final DiscountUseAllocator discountUseAllocator;
+  private final DiscountRegistry discountRegistry;
 
-  public DiscountService(DiscountRepository discountRepository) {
+  /**
+   * Create the discount service.
+   *
+   * @param discountRepository the discount repository
+   * @param discountUseAllocator the allocator of reserved discount uses
+   * @param discountRegistry the registry of discount definitions
+   */
+  public DiscountService(DiscountRepository discountRepository,
+                         DiscountUseAllocator discountUseAllocator,
+                         DiscountRegistry discountRegistry) {
     this.discountRepository = discountRepository;
+    this.discountUseAllocator = discountUseAllocator;
+    this.discountRegistry = discountRegistry;
   }
 
   /**
@@ -24,6 +39,7 @@ public class DiscountService {
    *
    * @return list of all discounts
    */
+  @Transactional(readOnly = true)
   public List<Discount> getAllDiscounts() {
     return discountRepository.findAll();
   }
@@ -31,65 +47,96 @@ public class DiscountService {
   /**
    * Validate and get discounts by their codes.
    *
+   * <p>Codes are checked against the {@link DiscountRegistry} without a query. Whether a discount
+   * has uses left is only known once it is redeemed with {@link #updateDiscountUsage(List)}.
+   *
    * @param discountCodes the list of discount codes
-   * @return list of valid discounts
-   * @throws InvalidDiscountException if any discount is invalid
+   * @return list of valid discounts, each code once
+   * @throws InvalidDiscountException if any discount is unknown, not yet valid or expired
    */
-  public List<Discount> validateAndGetDiscounts(List<String> discountCodes) {
+  public List<DiscountDefinition> validateAndGetDiscounts(List<String> discountCodes) {
     if (discountCodes == null || discountCodes.isEmpty()) {
       return List.of();
     }
 
-    List<Discount> discounts = discountRepository.findAllByCodeIn(discountCodes);
-
-    // Check if all codes were found
-    if (discounts.size() != discountCodes.size()) {
-      List<String> foundCodes = discounts.stream()
-          .map(Discount::getCode)
-          .toList();
-
-      String missingCode = discountCodes.stream()
-          .filter(code -> !foundCodes.contains(code))
-          .findFirst()
-          .orElse("unknown");
-
-      throw new InvalidDiscountException(missingCode, "discount code not found");
-    }
-
-    // Validate each discount
-    LocalDate today = LocalDate.now();
-    for (Discount discount : discounts) {
-      validateDiscount(discount, today);
-    }
+    return discountCodes.stream()
+        .distinct()
+        .map(discountRegistry::getActive)
+        .toList();
+  }
 
-    return discounts;
+  /**
+   * Get references to discount entities for associating them with an order, without loading
+   * them.
+   *
+   * @param discounts the discount definitions
+   * @return discount entity references
+   */
+  public List<Discount> getReferences(List<DiscountDefinition> discounts) {
+    return discounts.stream()
+        .map(discount -> discountRepository.getReferenceById(discount.id()))
+        .toList();
   }
 
   /**
    * Update remaining uses for discounts.
    *
+   * <p>Each use is either taken from a block reserved by {@link DiscountUseAllocator} or redeemed
+   * by a conditional update in the database, batched in one round trip, so a code can never be
+   * redeemed more often than it allows.
+   *
    * @param discounts the list of discounts to update
+   * @throws InvalidDiscountException if any discount has no remaining uses
    */
-  public void updateDiscountUsage(List<Discount> discounts) {
-    for (Discount discount : discounts) {
-      discount.setRemainingUses(discount.getRemainingUses() - 1);
-      discountRepository.save(discount);
+  @Transactional
+  public void updateDiscountUsage(List<DiscountDefinition> discounts) {
+    // Lock rows in code order so that concurrent checkouts cannot deadlock
+    List<String> codes = discounts.stream()
+        .map(DiscountDefinition::code)
+        .sorted()
+        .toList();
+
+    if (discountUseAllocator.isEnabled()) {
+      codes = codes.stream()
+          .filter(code -> !takeHeldUse(code))
+          .toList();
+      if (codes.isEmpty()) {
+        return;
+      }
     }
-  }
 
-  private void validateDiscount(Discount discount, LocalDate today) {
-    // Check if discount is expired
-    if (today.isBefore(discount.getValidFrom())) {
-      throw new InvalidDiscountException(discount.getCode(), "discount is not yet valid");
+    int[] updateCounts = discountRepository.redeem(codes);
+    for (int i = 0; i < codes.size(); i++) {
+      if (updateCounts[i] == 0) {
+        throw new InvalidDiscountException(codes.get(i), "discount has no remaining uses");
+      }
     }
+  }
 
-    if (today.isAfter(discount.getValidUntil())) {
-      throw new InvalidDiscountException(discount.getCode(), "discount has expired");
-    }
+  /**
+   * Give back one use of each discount of an order that could not be written.
+   *
+   * @param discounts the discounts redeemed for the order
+   */
+  @Transactional
+  public void releaseDiscountUsage(List<DiscountDefinition> discounts) {
+    discounts.forEach(discount -> discountRepository.release(discount.code(), 1));
+  }
 
-    // Check if discount has remaining uses
-    if (discount.getRemainingUses() <= 0) {
-      throw new InvalidDiscountException(discount.getCode(), "discount has no remaining uses");
+  private boolean takeHeldUse(String code) {
+    if (!discountUseAllocator.tryTake(code)) {
+      return false;
     }
+
+    // The use is only spent if the checkout commits
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_COMMITTED) {
+          discountUseAllocator.giveBack(code);
+        }
+      }
+    });
+    return true;
   }
 }
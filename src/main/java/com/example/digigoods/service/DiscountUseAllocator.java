@@ -0,0 +1,166 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.repository.DiscountRepository;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hands out discount uses from blocks reserved in the database ahead of time, so that checkouts
+ * redeeming a popular code do not all queue on the lock of its row.
+ *
+ * <p>Blocks are reserved in the background, in their own transaction, once the uses held for a
+ * code run low. Checkouts never wait for a reservation: when nothing is held they redeem directly
+ * in the database instead. A code whose reservation comes back empty is sold out, and is not
+ * reserved again until the discount changes. Uses still held on shutdown are given back; uses
+ * held by a node that crashes are lost, so a code can end up under-redeemed but never
+ * over-redeemed.
+ *
+ * <p>Disabled when the block size is 0.
+ */
+@Component
+public class DiscountUseAllocator implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(DiscountUseAllocator.class);
+
+  private final DiscountRepository discountRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final int blockSize;
+  private final int lowWatermark;
+  private final ExecutorService refiller;
+
+  private final Map<String, AtomicInteger> heldUses = new ConcurrentHashMap<>();
+  private final Set<String> refilling = ConcurrentHashMap.newKeySet();
+  private final Set<String> exhausted = ConcurrentHashMap.newKeySet();
+  // Bumped by every discount change, so that a reservation overlapping one does not mark its
+  // code exhausted
+  private final AtomicLong changes = new AtomicLong();
+
+  /**
+   * Create the discount use allocator.
+   *
+   * @param discountRepository the discount repository
+   * @param transactionManager the transaction manager used for reservations
+   * @param blockSize the number of uses reserved at once, 0 to disable
+   */
+  public DiscountUseAllocator(DiscountRepository discountRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${discount.redemption.block-size:0}") int blockSize) {
+    this.discountRepository = discountRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.blockSize = blockSize;
+    this.lowWatermark = blockSize / 4;
+    this.refiller = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "discount-use-refill");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Check whether uses are handed out from reserved blocks.
+   *
+   * @return true if enabled
+   */
+  public boolean isEnabled() {
+    return blockSize > 0;
+  }
+
+  /**
+   * Take one held use of a code, starting a reservation in the background if uses run low.
+   *
+   * @param code the discount code
+   * @return true if a use was taken, false if none is held and the caller must redeem directly
+   */
+  public boolean tryTake(String code) {
+    AtomicInteger uses = heldUses.computeIfAbsent(code, key -> new AtomicInteger());
+    int before = uses.getAndUpdate(held -> held > 0 ? held - 1 : held);
+    if (before - 1 <= lowWatermark) {
+      scheduleRefill(code, uses);
+    }
+    return before > 0;
+  }
+
+  /**
+   * Give back a use taken with {@link #tryTake(String)} that ended up not being redeemed.
+   *
+   * @param code the discount code
+   */
+  public void giveBack(String code) {
+    heldUses.computeIfAbsent(code, key -> new AtomicInteger()).incrementAndGet();
+  }
+
+  /**
+   * Let a code be reserved again after its discount changed, as it may have been given more uses.
+   *
+   * @param code the discount code
+   */
+  public void discountChanged(String code) {
+    changes.incrementAndGet();
+    exhausted.remove(code);
+  }
+
+  /**
+   * Check whether a code is known to be sold out.
+   *
+   * @param code the discount code
+   * @return true if no reservation is attempted until the discount changes
+   */
+  boolean isExhausted(String code) {
+    return exhausted.contains(code);
+  }
+
+  private void scheduleRefill(String code, AtomicInteger uses) {
+    if (exhausted.contains(code) || !refilling.add(code)) {
+      return;
+    }
+    try {
+      refiller.execute(() -> {
+        try {
+          long changesBefore = changes.get();
+          Integer reserved = transactionTemplate.execute(
+              status -> discountRepository.reserve(code, blockSize));
+          if (reserved != null && reserved > 0) {
+            uses.addAndGet(reserved);
+          } else if (changes.get() == changesBefore) {
+            exhausted.add(code);
+          }
+        } catch (RuntimeException e) {
+          log.warn("Unable to reserve uses of discount code '{}'", code, e);
+        } finally {
+          refilling.remove(code);
+        }
+      });
+    } catch (RuntimeException e) {
+      // Shutting down; checkouts fall back to redeeming directly
+      refilling.remove(code);
+    }
+  }
+
+  /**
+   * Stop reserving and give every held use back to the database.
+   */
+  @Override
+  public void close() throws InterruptedException {
+    refiller.shutdown();
+    refiller.awaitTermination(10, TimeUnit.SECONDS);
+    heldUses.forEach((code, uses) -> {
+      int held = uses.getAndSet(0);
+      if (held > 0) {
+        transactionTemplate.executeWithoutResult(
+            status -> discountRepository.release(code, held));
+      }
+    });
+  }
+}
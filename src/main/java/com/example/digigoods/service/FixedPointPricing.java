@@ -0,0 +1,128 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.exception.ExcessiveDiscountException;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.OrderItem;
+import com.example.digigoods.model.Product;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pricing of checkout plans in long cents and basis points.
+ *
+ * <p>Gives the same results as {@link CheckoutPricing#priceDecimal(CheckoutPlan)}, down to the
+ * scale of every {@link BigDecimal}: each rounding step of the decimal path rounds a value to two
+ * decimals, which here is an integer division of cents rounded half up. Each price is converted
+ * to cents once and each line price back to a {@link BigDecimal} once; the discount arithmetic
+ * in between allocates nothing, however large the cart or many the discounts.
+ *
+ * <p>A plan is only priced here if every price has exactly two decimals, every percentage has at
+ * most two decimals, the original subtotal is not zero and no intermediate value overflows a
+ * long; otherwise {@link #price(CheckoutPlan)} returns {@code null} for the caller to fall back to
+ * decimal pricing.
+ */
+final class FixedPointPricing {
+
+  private static final int PRICE_SCALE = 2;
+  private static final long BASIS_POINTS = 10_000;
+  private static final long MAX_DISCOUNT_BASIS_POINTS =
+      DiscountRuleIndex.toBasisPoints(CheckoutPricing.MAX_DISCOUNT_PERCENTAGE);
+
+  private FixedPointPricing() {
+  }
+
+  /**
+   * Price a checkout plan in long cents.
+   *
+   * @param plan the checkout plan
+   * @return priced order, or {@code null} if the plan cannot be priced exactly in cents
+   * @throws InsufficientStockException if a product has less stock than its line quantity
+   * @throws ExcessiveDiscountException if the discounts take off more than the maximum
+   */
+  static PricedOrder price(CheckoutPlan plan) {
+    Cart cart = plan.cart();
+    DiscountRuleIndex discountRules = DiscountRuleIndex.compile(
+        CheckoutPricing.discountsOfType(plan, DiscountType.PRODUCT_SPECIFIC), cart.productIds());
+    List<DiscountDefinition> generalDiscounts =
+        CheckoutPricing.discountsOfType(plan, DiscountType.GENERAL);
+    long[] generalBasisPoints = new long[generalDiscounts.size()];
+    try {
+      for (int i = 0; i < generalBasisPoints.length; i++) {
+        generalBasisPoints[i] =
+            DiscountRuleIndex.toBasisPoints(generalDiscounts.get(i).percentage());
+      }
+    } catch (ArithmeticException e) {
+      return null;
+    }
+    if (!discountRules.isExactInBasisPoints()) {
+      return null;
+    }
+
+    long[] linePrices = new long[cart.size()];
+    long original = 0;
+    long discounted = 0;
+    try {
+      for (int line = 0; line < cart.size(); line++) {
+        Product product = plan.products().get(line);
+        int quantity = cart.quantity(line);
+        if (product.getStock() < quantity) {
+          throw new InsufficientStockException(product.getId(), quantity, product.getStock());
+        }
+        if (product.getPrice().scale() != PRICE_SCALE) {
+          return null;
+        }
+
+        long unitPrice = product.getPrice().unscaledValue().longValueExact();
+        long basisPoints = discountRules.basisPointsFor(product.getId());
+        long discountedPrice = basisPoints <= 0 ? unitPrice
+            : unitPrice - divideHalfUp(Math.multiplyExact(unitPrice, basisPoints), BASIS_POINTS);
+        linePrices[line] = Math.multiplyExact(discountedPrice, quantity);
+        original = Math.addExact(original, Math.multiplyExact(unitPrice, quantity));
+        discounted = Math.addExact(discounted, linePrices[line]);
+      }
+      if (original == 0) {
+        return null;
+      }
+
+      long finalPrice = discounted;
+      for (long basisPoints : generalBasisPoints) {
+        finalPrice = Math.subtractExact(finalPrice,
+            divideHalfUp(Math.multiplyExact(finalPrice, basisPoints), BASIS_POINTS));
+      }
+
+      // The total discount as a percentage of the original subtotal, in basis points
+      long discountBasisPoints = divideHalfUp(
+          Math.multiplyExact(Math.subtractExact(original, finalPrice), BASIS_POINTS), original);
+      if (discountBasisPoints > MAX_DISCOUNT_BASIS_POINTS) {
+        throw new ExcessiveDiscountException();
+      }
+
+      List<OrderItem> items = new ArrayList<>(cart.size());
+      for (int line = 0; line < cart.size(); line++) {
+        Product product = plan.products().get(line);
+        items.add(new OrderItem(product.getId(), cart.quantity(line), product.getPrice(),
+            BigDecimal.valueOf(linePrices[line], PRICE_SCALE)));
+      }
+      return new PricedOrder(plan, items, BigDecimal.valueOf(original, PRICE_SCALE),
+          BigDecimal.valueOf(finalPrice, PRICE_SCALE));
+    } catch (ArithmeticException e) {
+      // A value overflowed a long
+      return null;
+    }
+  }
+
+  /**
+   * Divide, rounding half away from zero like {@link java.math.RoundingMode#HALF_UP}.
+   *
+   * @param dividend the dividend
+   * @param divisor the divisor, positive
+   * @return rounded quotient
+   */
+  static long divideHalfUp(long dividend, long divisor) {
+    long quotient = dividend / divisor;
+    long remainder = Math.abs(dividend % divisor);
+    return remainder >= divisor - remainder ? quotient + Long.signum(dividend) : quotient;
+  }
+}
@@ -1,12 +1,21 @@
 package com.example.digigoods.service;
 
+import com.example.digigoods.security.JwtKeyring;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 import java.util.function.Function;
-import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
 /**
@@ -15,11 +24,44 @@ import org.springframework.stereotype.Service;
 @Service
 public class JwtService {
 
-  @Value("${jwt.secret:mySecretKey}")
-  private String secret;
+  private static final String USER_ID_CLAIM = "userId";
+  private static final String AUTHORITIES_CLAIM = "authorities";
 
-  @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
-  private Long expiration;
+  private final JwtKeyring keyring;
+  private final Long expiration;
+
+  /**
+   * Parser bound to the keyring. {@link JwtParser} is immutable and thread-safe, so one instance
+   * serves every verification.
+   */
+  private final JwtParser parser;
+
+  /**
+   * Verified claims keyed by the raw token. Entries expire together with the token itself, so an
+   * expired token always falls through to the parser and fails verification there.
+   */
+  private final Cache<String, Claims> claimsCache;
+
+  /**
+   * Create the JWT service.
+   *
+   * @param keyring the signing and verification keys
+   * @param expiration the token lifetime in milliseconds
+   * @param claimsCacheMaxSize the maximum number of verified tokens kept in memory
+   */
+  public JwtService(JwtKeyring keyring,
+                    @Value("${jwt.expiration:86400000}") Long expiration,
+                    @Value("${jwt.claims-cache.max-size:10000}") long claimsCacheMaxSize) {
+    this.keyring = keyring;
+    this.expiration = expiration;
+    this.parser = Jwts.parser()
+        .keyLocator(keyring)
+        .build();
+    this.claimsCache = Caffeine.newBuilder()
+        .maximumSize(claimsCacheMaxSize)
+        .expireAfter(Expiry.creating(JwtService::timeToExpiry))
+        .build();
+  }
 
   /**
    * Generate JWT token for a user.
@@ -30,14 +72,39 @@ public class JwtService {
    */
   public String generateToken(Long userId, String username) {
     return Jwts.builder()
+        .header().keyId(keyring.getActiveKeyId()).and()
+        .id(UUID.randomUUID().toString())
         .subject(username)
-        .claim("userId", userId)
+        .claim(USER_ID_CLAIM, userId)
         .issuedAt(new Date())
         .expiration(new Date(System.currentTimeMillis() + expiration))
-        .signWith(getSigningKey())
+        .signWith(keyring.getActiveKey())
         .compact();
   }
 
+  /**
+   * Extract the verified claims of a JWT token.
+   *
+   * <p>The signature is checked only the first time a token is seen; later calls with the same
+   * token are served from memory until the token expires.
+   *
+   * @param token the JWT token
+   * @return verified claims
+   */
+  public Claims extractClaims(String token) {
+    return claimsCache.get(token, this::parseClaims);
+  }
+
+  /**
+   * Parse and verify a JWT token without consulting the claims cache.
+   *
+   * @param token the JWT token
+   * @return verified claims
+   */
+  public Claims parseClaims(String token) {
+    return parser.parseSignedClaims(token).getPayload();
+  }
+
   /**
    * Extract username from JWT token.
    *
@@ -55,7 +122,32 @@ public class JwtService {
    * @return user ID
    */
   public Long extractUserId(String token) {
-    return extractClaim(token, claims -> claims.get("userId", Long.class));
+    return extractUserId(extractClaims(token));
+  }
+
+  /**
+   * Extract user ID from already verified claims.
+   *
+   * @param claims the verified claims
+   * @return user ID
+   */
+  public Long extractUserId(Claims claims) {
+    return claims.get(USER_ID_CLAIM, Long.class);
+  }
+
+  /**
+   * Extract granted authorities from already verified claims.
+   *
+   * @param claims the verified claims
+   * @return granted authorities, empty if the token carries none
+   */
+  public List<GrantedAuthority> extractAuthorities(Claims claims) {
+    if (!(claims.get(AUTHORITIES_CLAIM) instanceof Collection<?> authorities)) {
+      return List.of();
+    }
+    return authorities.stream()
+        .map(authority -> (GrantedAuthority) new SimpleGrantedAuthority(authority.toString()))
+        .toList();
   }
 
   /**
@@ -65,7 +157,11 @@ public class JwtService {
    * @return true if expired, false otherwise
    */
   public boolean isTokenExpired(String token) {
-    return extractExpiration(token).before(new Date());
+    return isTokenExpired(extractClaims(token));
+  }
+
+  private boolean isTokenExpired(Claims claims) {
+    return claims.getExpiration().before(new Date());
   }
 
   /**
@@ -76,28 +172,31 @@ public class JwtService {
    * @return true if valid, false otherwise
    */
   public boolean validateToken(String token, String username) {
-    final String extractedUsername = extractUsername(token);
-    return (extractedUsername.equals(username) && !isTokenExpired(token));
+    return validateToken(extractClaims(token), username);
   }
 
-  private Date extractExpiration(String token) {
-    return extractClaim(token, Claims::getExpiration);
+  /**
+   * Validate already verified claims against a username.
+   *
+   * @param claims the verified claims
+   * @param username the username to validate against
+   * @return true if valid, false otherwise
+   */
+  public boolean validateToken(Claims claims, String username) {
+    return claims.getSubject().equals(username) && !isTokenExpired(claims);
   }
 
   private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-    final Claims claims = extractAllClaims(token);
+    final Claims claims = extractClaims(token);
     return claimsResolver.apply(claims);
   }
 
-  private Claims extractAllClaims(String token) {
-    return Jwts.parser()
-        .verifyWith(getSigningKey())
-        .build()
-        .parseSignedClaims(token)
-        .getPayload();
-  }
-
-  private SecretKey getSigningKey() {
-    return Keys.hmacShaKeyFor(secret.getBytes());
+  private static Duration timeToExpiry(String token, Claims claims) {
+    Date expiresAt = claims.getExpiration();
+    if (expiresAt == null) {
+      return Duration.ZERO;
+    }
+    long remaining = expiresAt.getTime() - System.currentTimeMillis();
+    return Duration.ofMillis(Math.max(remaining, 0));
   }
 }
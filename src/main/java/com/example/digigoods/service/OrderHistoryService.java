@@ -0,0 +1,89 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.OrderPage;
+import com.example.digigoods.dto.OrderPageRequest;
+import com.example.digigoods.dto.OrderSummary;
+import com.example.digigoods.exception.InvalidCursorException;
+import com.example.digigoods.repository.OrderRepository;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for reading the order history of a user.
+ */
+@Service
+public class OrderHistoryService {
+
+  private static final int DEFAULT_PAGE_SIZE = 50;
+  private static final String CURSOR_PREFIX = "order:";
+  private static final char CURSOR_SEPARATOR = '/';
+
+  private final OrderRepository orderRepository;
+
+  public OrderHistoryService(OrderRepository orderRepository) {
+    this.orderRepository = orderRepository;
+  }
+
+  /**
+   * Get one page of the orders of a user, newest first.
+   *
+   * <p>Pages are addressed by a cursor holding the order date and ID of the last order of the
+   * previous page, so every page is a bounded scan of the user's orders in the
+   * {@code (user_id, order_date DESC, id)} index however long the history is. Orders are read as
+   * summaries, without their products or discounts.
+   *
+   * @param userId the ID of the user
+   * @param request the page request
+   * @return page of orders with the cursor of the next page
+   * @throws InvalidCursorException if the cursor cannot be decoded
+   */
+  public OrderPage getOrderHistory(Long userId, OrderPageRequest request) {
+    int limit = request.getLimit() != null ? request.getLimit() : DEFAULT_PAGE_SIZE;
+
+    // Fetch one extra order to know whether another page follows, without a count query
+    List<OrderSummary> orders;
+    if (request.getCursor() == null || request.getCursor().isEmpty()) {
+      orders = orderRepository.findHistory(userId, Limit.of(limit + 1));
+    } else {
+      OrderSummary last = decodeCursor(request.getCursor());
+      orders = orderRepository.findHistoryAfter(userId, last.getOrderDate(), last.getId(),
+          Limit.of(limit + 1));
+    }
+
+    if (orders.size() <= limit) {
+      return new OrderPage(orders, null);
+    }
+    List<OrderSummary> items = orders.subList(0, limit);
+    return new OrderPage(items, encodeCursor(items.get(limit - 1)));
+  }
+
+  static String encodeCursor(OrderSummary last) {
+    String position = CURSOR_PREFIX + last.getOrderDate() + CURSOR_SEPARATOR + last.getId();
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decode a cursor into the order date and ID of the order it points after.
+   */
+  static OrderSummary decodeCursor(String cursor) {
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = decoded.lastIndexOf(CURSOR_SEPARATOR);
+      if (!decoded.startsWith(CURSOR_PREFIX) || separator < CURSOR_PREFIX.length()) {
+        throw new InvalidCursorException(cursor);
+      }
+      LocalDateTime orderDate =
+          LocalDateTime.parse(decoded.substring(CURSOR_PREFIX.length(), separator));
+      long id = Long.parseLong(decoded.substring(separator + 1));
+      return new OrderSummary(id, orderDate, null, null);
+    } catch (IllegalArgumentException | DateTimeException e) {
+      throw new InvalidCursorException(cursor);
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.repository.OrderRecord;
+import java.util.List;
+
+/**
+ * An order whose stock and discount uses are taken, waiting in the {@link CheckoutPipeline} to be
+ * written.
+ *
+ * @param order the order to write
+ * @param cart the cart, to give its stock back if the order cannot be written
+ * @param discounts the redeemed discounts, to give their uses back likewise
+ */
+record PendingOrder(OrderRecord order, Cart cart, List<DiscountDefinition> discounts) {
+}
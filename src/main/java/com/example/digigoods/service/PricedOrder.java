@@ -0,0 +1,17 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.model.OrderItem;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A validated and priced checkout, before stock and discount uses are taken.
+ *
+ * @param plan the checkout plan that was priced
+ * @param items the priced lines, in cart line order
+ * @param originalSubtotal the subtotal before any discount
+ * @param finalPrice the price after all discounts
+ */
+record PricedOrder(CheckoutPlan plan, List<OrderItem> items, BigDecimal originalSubtotal,
+                   BigDecimal finalPrice) {
+}
@@ -0,0 +1,44 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.model.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener keeping the product catalog snapshot in step with product changes.
+ */
+@Component
+public class ProductCatalogInvalidationListener {
+
+  // Resolved lazily: the catalog depends on the repositories, which depend on this listener
+  private final ObjectProvider<ProductCatalogService> productCatalogService;
+
+  public ProductCatalogInvalidationListener(
+      ObjectProvider<ProductCatalogService> productCatalogService) {
+    this.productCatalogService = productCatalogService;
+  }
+
+  /**
+   * Invalidate the snapshot for an added or removed product.
+   *
+   * @param product the added or removed product
+   */
+  @PostPersist
+  @PostRemove
+  public void onProductAddedOrRemoved(Product product) {
+    productCatalogService.getObject().invalidate();
+  }
+
+  /**
+   * Invalidate the snapshot for a changed product, if the change is visible enough to matter.
+   *
+   * @param product the changed product
+   */
+  @PostUpdate
+  public void onProductUpdated(Product product) {
+    productCatalogService.getObject().productChanged(product);
+  }
+}
@@ -0,0 +1,226 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Service holding an immutable, pre-serialized snapshot of the product catalog.
+ *
+ * <p>The snapshot is rebuilt lazily on the first read after it was invalidated. Adding, removing,
+ * renaming or repricing a product invalidates it. Stock changes only do so when they move a
+ * product across the low-stock threshold (which includes selling out); otherwise the stock shown
+ * may lag behind by up to the configured maximum age.
+ *
+ * <p>Requests only ever read the latest snapshot reference, so serving the catalog costs neither
+ * a query nor serialization.
+ */
+@Service
+public class ProductCatalogService {
+
+  private final ProductRepository productRepository;
+  private final ObjectMapper objectMapper;
+  private final int lowStockThreshold;
+  private final Duration maxAge;
+  private final Clock clock;
+
+  private final AtomicLong generation = new AtomicLong();
+  private final ReentrantLock rebuildLock = new ReentrantLock();
+  private volatile CatalogSnapshot snapshot;
+
+  /**
+   * Create the product catalog service.
+   *
+   * @param productRepository the product repository
+   * @param objectMapper the object mapper used to serialize the snapshot
+   * @param lowStockThreshold stock level whose crossing invalidates the snapshot
+   * @param maxAge how long a snapshot is served before it is rebuilt regardless of changes
+   */
+  @Autowired
+  public ProductCatalogService(ProductRepository productRepository,
+                               ObjectMapper objectMapper,
+                               @Value("${catalog.snapshot.low-stock-threshold:10}")
+                               int lowStockThreshold,
+                               @Value("${catalog.snapshot.max-age:30s}") Duration maxAge) {
+    this(productRepository, objectMapper, lowStockThreshold, maxAge, Clock.systemUTC());
+  }
+
+  ProductCatalogService(ProductRepository productRepository, ObjectMapper objectMapper,
+                        int lowStockThreshold, Duration maxAge, Clock clock) {
+    this.productRepository = productRepository;
+    this.objectMapper = objectMapper;
+    this.lowStockThreshold = lowStockThreshold;
+    this.maxAge = maxAge;
+    this.clock = clock;
+  }
+
+  /**
+   * Get the current catalog snapshot, rebuilding it first if it is stale.
+   *
+   * @return catalog snapshot
+   */
+  public CatalogSnapshot getSnapshot() {
+    CatalogSnapshot current = snapshot;
+    if (isFresh(current)) {
+      return current;
+    }
+
+    // Only one thread rebuilds; the others keep serving the previous snapshot meanwhile rather
+    // than queueing behind a full catalog load. They only wait when there is nothing to serve.
+    if (current != null && !rebuildLock.tryLock()) {
+      return current;
+    }
+    if (current == null) {
+      rebuildLock.lock();
+    }
+    try {
+      current = snapshot;
+      if (isFresh(current)) {
+        return current;
+      }
+      current = buildSnapshot();
+      snapshot = current;
+      return current;
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+  /**
+   * Mark the snapshot as stale.
+   *
+   * <p>Inside a transaction the snapshot is invalidated again once the transaction completes, so
+   * that a snapshot built concurrently from the state before the commit is not kept.
+   */
+  public void invalidate() {
+    generation.incrementAndGet();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          generation.incrementAndGet();
+        }
+      });
+    }
+  }
+
+  /**
+   * Notify the catalog of a changed product, invalidating the snapshot only if the change is
+   * visible enough to matter.
+   *
+   * @param product the product in its new state
+   * @return true if the snapshot was invalidated
+   */
+  public boolean productChanged(Product product) {
+    CatalogSnapshot current = snapshot;
+    CatalogProduct previous = current != null ? current.products().get(product.getId()) : null;
+    if (previous == null
+        || !Objects.equals(previous.name(), product.getName())
+        || !isSamePrice(previous.price(), product.getPrice())
+        || crossesStockThreshold(previous.stock(), product.getStock())) {
+      invalidate();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Notify the catalog that the stock of a product changed, invalidating the snapshot only if the
+   * product crossed the low-stock threshold.
+   *
+   * @param productId the product ID
+   * @param newStock the new stock level
+   * @return true if the snapshot was invalidated
+   */
+  public boolean stockChanged(Long productId, int newStock) {
+    CatalogSnapshot current = snapshot;
+    CatalogProduct previous = current != null ? current.products().get(productId) : null;
+    if (previous == null || crossesStockThreshold(previous.stock(), newStock)) {
+      invalidate();
+      return true;
+    }
+    return false;
+  }
+
+  private boolean isFresh(CatalogSnapshot current) {
+    return current != null
+        && current.generation() == generation.get()
+        && current.builtAt().plus(maxAge).isAfter(clock.instant());
+  }
+
+  private CatalogSnapshot buildSnapshot() {
+    // Read the generation first: a change flushed while loading leaves the snapshot stale
+    long buildGeneration = generation.get();
+    List<CatalogProduct> products = productRepository.findAll().stream()
+        .map(product -> new CatalogProduct(product.getId(), product.getName(),
+            product.getPrice(), product.getStock()))
+        .toList();
+
+    byte[] body;
+    try {
+      body = objectMapper.writeValueAsBytes(products);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Unable to serialize product catalog", e);
+    }
+
+    Map<Long, CatalogProduct> productsById = products.stream()
+        .collect(Collectors.toUnmodifiableMap(CatalogProduct::id, Function.identity()));
+    String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    return new CatalogSnapshot(buildGeneration, clock.instant(), body, etag, productsById);
+  }
+
+  private boolean crossesStockThreshold(Integer oldStock, Integer newStock) {
+    if (oldStock == null || newStock == null) {
+      return !Objects.equals(oldStock, newStock);
+    }
+    return (oldStock <= lowStockThreshold) != (newStock <= lowStockThreshold)
+        || (oldStock <= 0) != (newStock <= 0);
+  }
+
+  private static boolean isSamePrice(BigDecimal oldPrice, BigDecimal newPrice) {
+    return oldPrice == null ? newPrice == null
+        : newPrice != null && oldPrice.compareTo(newPrice) == 0;
+  }
+
+  /**
+   * Product as it appears in the catalog snapshot.
+   *
+   * @param id the product ID
+   * @param name the product name
+   * @param price the product price
+   * @param stock the stock level when the snapshot was built
+   */
+  public record CatalogProduct(Long id, String name, BigDecimal price, Integer stock) {
+  }
+
+  /**
+   * Immutable catalog snapshot.
+   *
+   * @param generation the invalidation generation the snapshot was built for
+   * @param builtAt when the snapshot was built
+   * @param body the catalog serialized as a JSON array
+   * @param etag the strong entity tag of the body
+   * @param products the catalog products by ID
+   */
+  public record CatalogSnapshot(long generation, Instant builtAt, byte[] body, String etag,
+                                Map<Long, CatalogProduct> products) {
+  }
+}
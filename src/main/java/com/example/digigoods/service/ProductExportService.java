@@ -0,0 +1,79 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service exporting the product catalog as newline-delimited JSON.
+ */
+@Service
+public class ProductExportService {
+
+  private final ProductRepository productRepository;
+  private final EntityManager entityManager;
+  private final ObjectMapper objectMapper;
+  private final ObjectWriter productWriter;
+
+  /**
+   * Create the product export service.
+   *
+   * @param productRepository the product repository
+   * @param entityManager the entity manager, cleared while streaming
+   * @param objectMapper the object mapper used to serialize products
+   */
+  public ProductExportService(ProductRepository productRepository,
+                              EntityManager entityManager,
+                              ObjectMapper objectMapper) {
+    this.productRepository = productRepository;
+    this.entityManager = entityManager;
+    this.objectMapper = objectMapper;
+    // Flush once per batch rather than after every product
+    this.productWriter = objectMapper.writerFor(Product.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  /**
+   * Write every product following a given ID to an output stream, one JSON object per line, in
+   * ID order.
+   *
+   * <p>Products are read from a database cursor and the persistence context is cleared after
+   * every fetched batch, so memory use does not depend on the size of the catalog. The output
+   * stream is flushed but not closed.
+   *
+   * @param afterId the ID to resume after, 0 to start from the beginning
+   * @param out the output stream
+   * @return number of products written
+   * @throws IOException if writing to the output stream fails
+   */
+  @Transactional(readOnly = true)
+  public long exportProducts(long afterId, OutputStream out) throws IOException {
+    long count = 0;
+    try (Stream<Product> products = productRepository.streamAllAfter(afterId);
+         JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+      Iterator<Product> iterator = products.iterator();
+      while (iterator.hasNext()) {
+        productWriter.writeValue(generator, iterator.next());
+        generator.writeRaw('\n');
+        if (++count % ProductRepository.STREAM_FETCH_SIZE == 0) {
+          generator.flush();
+          entityManager.clear();
+        }
+      }
+      generator.flush();
+    }
+    return count;
+  }
+}
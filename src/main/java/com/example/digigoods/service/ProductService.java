@@ -1,14 +1,24 @@
 package com.example.digigoods.service;
 
+import com.example.digigoods.dto.ProductPage;
+import com.example.digigoods.dto.ProductPageRequest;
 import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.InvalidCursorException;
 import com.example.digigoods.exception.ProductNotFoundException;
 import com.example.digigoods.model.Product;
 import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.service.ProductCatalogService.CatalogProduct;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Set;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service for product operations.
@@ -16,10 +26,16 @@ import org.springframework.stereotype.Service;
 @Service
 public class ProductService {
 
+  private static final int DEFAULT_PAGE_SIZE = 50;
+  private static final String CURSOR_PREFIX = "id:";
+
   private final ProductRepository productRepository;
+  private final ProductCatalogService productCatalogService;
 
-  public ProductService(ProductRepository productRepository) {
+  public ProductService(ProductRepository productRepository,
+                        ProductCatalogService productCatalogService) {
     this.productRepository = productRepository;
+    this.productCatalogService = productCatalogService;
   }
 
   /**
@@ -32,20 +48,67 @@ public class ProductService {
   public List<Product> getProductsByIds(List<Long> productIds) {
     List<Product> products = productRepository.findAllByIdIn(productIds);
 
-    if (products.size() != productIds.size()) {
-      // Find missing product IDs
-      List<Long> foundIds = products.stream()
-          .map(Product::getId)
-          .collect(Collectors.toList());
+    // Compare against the distinct IDs, as a repeated ID matches only one product
+    Set<Long> requestedIds = new LinkedHashSet<>(productIds);
+    if (products.size() != requestedIds.size()) {
+      products.forEach(product -> requestedIds.remove(product.getId()));
+      throw new ProductNotFoundException("Products not found with IDs: " + requestedIds);
+    }
 
-      List<Long> missingIds = productIds.stream()
-          .filter(id -> !foundIds.contains(id))
-          .collect(Collectors.toList());
+    return products;
+  }
 
+  /**
+   * Get the products of a cart in one query and validate they exist.
+   *
+   * @param cart the cart
+   * @return products, the product of each cart line at the index of that line
+   * @throws ProductNotFoundException if any product is not found
+   */
+  public List<Product> getProducts(Cart cart) {
+    Product[] products = new Product[cart.size()];
+    for (Product product : productRepository.findAllByIdIn(cart.productIdList())) {
+      products[cart.indexOf(product.getId())] = product;
+    }
+    return requireAll(cart, products);
+  }
+
+  /**
+   * Get the products of a cart from the catalog snapshot and validate they exist. No query is
+   * sent unless the snapshot is stale.
+   *
+   * <p>The products are detached copies of the snapshot entries: prices are current, stock
+   * levels may lag behind as described in {@link ProductCatalogService}.
+   *
+   * @param cart the cart
+   * @return products, the product of each cart line at the index of that line
+   * @throws ProductNotFoundException if any product is not in the catalog
+   */
+  public List<Product> getCachedProducts(Cart cart) {
+    Map<Long, CatalogProduct> catalog = productCatalogService.getSnapshot().products();
+    Product[] products = new Product[cart.size()];
+    for (int line = 0; line < products.length; line++) {
+      CatalogProduct product = catalog.get(cart.productId(line));
+      if (product != null) {
+        products[line] = new Product(product.id(), product.name(), product.price(),
+            product.stock());
+      }
+    }
+    return requireAll(cart, products);
+  }
+
+  private static List<Product> requireAll(Cart cart, Product[] products) {
+    List<Long> missingIds = new ArrayList<>();
+    for (int line = 0; line < products.length; line++) {
+      if (products[line] == null) {
+        missingIds.add(cart.productId(line));
+      }
+    }
+    if (!missingIds.isEmpty()) {
       throw new ProductNotFoundException("Products not found with IDs: " + missingIds);
     }
 
-    return products;
+    return Arrays.asList(products);
   }
 
   /**
@@ -53,42 +116,134 @@ public class ProductService {
    *
    * @return list of all products
    */
+  @Transactional(readOnly = true)
   public List<Product> getAllProducts() {
     return productRepository.findAll();
   }
 
+  /**
+   * Get one page of products, ordered by ID.
+   *
+   * <p>Pages are addressed by a cursor holding the last ID of the previous page rather than by an
+   * offset, so every page costs the same however deep into the catalog it is.
+   *
+   * @param request the page request
+   * @return page of products with the cursor of the next page
+   * @throws InvalidCursorException if the cursor cannot be decoded
+   */
+  @Transactional(readOnly = true)
+  public ProductPage getProductPage(ProductPageRequest request) {
+    int limit = request.getLimit() != null ? request.getLimit() : DEFAULT_PAGE_SIZE;
+
+    // Fetch one extra product to know whether another page follows, without a count query
+    List<Product> products = productRepository.findPage(
+        decodeCursor(request.getCursor()),
+        request.getMinPrice(),
+        request.getMaxPrice(),
+        toPrefixPattern(request.getNamePrefix()),
+        Boolean.TRUE.equals(request.getInStock()),
+        Limit.of(limit + 1));
+
+    if (products.size() <= limit) {
+      return new ProductPage(products, null);
+    }
+    List<Product> items = products.subList(0, limit);
+    return new ProductPage(items, encodeCursor(items.get(limit - 1).getId()));
+  }
+
   /**
    * Validate and update stock for products.
    *
+   * <p>Every line is decremented by a conditional update in the database, batched in one round
+   * trip, so concurrent checkouts can neither lose updates nor oversell. A failed line leaves the
+   * surrounding transaction to roll back the lines already taken.
+   *
    * @param productIds the list of product IDs (with duplicates for quantity)
    * @throws InsufficientStockException if any product has insufficient stock
+   * @throws ProductNotFoundException if any product is not found
    */
+  @Transactional
   public void validateAndUpdateStock(List<Long> productIds) {
-    // Count quantities for each product
-    Map<Long, Long> productQuantities = productIds.stream()
-        .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
-
-    // Get all unique products
-    List<Product> products = getProductsByIds(productQuantities.keySet().stream()
-        .collect(Collectors.toList()));
-
-    // Validate stock availability
-    for (Product product : products) {
-      Long requestedQuantity = productQuantities.get(product.getId());
-      if (product.getStock() < requestedQuantity) {
-        throw new InsufficientStockException(
-            product.getId(),
-            requestedQuantity.intValue(),
-            product.getStock()
-        );
+    Cart cart = Cart.ofProductIds(productIds);
+    decrementStock(cart);
+    productRepository.findStockLevels(cart.productIdList())
+        .forEach(productCatalogService::stockChanged);
+  }
+
+  /**
+   * Update stock for products already loaded in the current transaction, without reading them
+   * again. The catalog is told the stock left as derived from the loaded products.
+   *
+   * @param cart the cart
+   * @param products the loaded product of each cart line, at the index of that line
+   * @throws InsufficientStockException if any product has insufficient stock
+   * @throws ProductNotFoundException if any product is not found
+   */
+  @Transactional
+  public void updateStock(Cart cart, List<Product> products) {
+    decrementStock(cart);
+    for (int line = 0; line < cart.size(); line++) {
+      productCatalogService.stockChanged(cart.productId(line),
+          products.get(line).getStock() - cart.quantity(line));
+    }
+  }
+
+  /**
+   * Give back the stock taken for a cart whose order could not be written.
+   *
+   * @param cart the cart
+   */
+  @Transactional
+  public void restoreStock(Cart cart) {
+    productRepository.restoreStock(cart.productIds(), cart.quantities());
+    productRepository.findStockLevels(cart.productIdList())
+        .forEach(productCatalogService::stockChanged);
+  }
+
+  private void decrementStock(Cart cart) {
+    int[] updateCounts = productRepository.decrementStock(cart.productIds(), cart.quantities());
+
+    for (int line = 0; line < cart.size(); line++) {
+      if (updateCounts[line] == 0) {
+        // Only read the stock back to explain the failure
+        long productId = cart.productId(line);
+        Integer available = productRepository.findStockLevels(List.of(productId)).get(productId);
+        if (available == null) {
+          throw new ProductNotFoundException(productId);
+        }
+        throw new InsufficientStockException(productId, cart.quantity(line), available);
+      }
+    }
+  }
+
+  static String encodeCursor(Long lastId) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+  }
+
+  static long decodeCursor(String cursor) {
+    if (cursor == null || cursor.isEmpty()) {
+      return 0L;
+    }
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      if (!decoded.startsWith(CURSOR_PREFIX)) {
+        throw new InvalidCursorException(cursor);
       }
+      return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidCursorException(cursor);
     }
+  }
 
-    // Update stock
-    for (Product product : products) {
-      Long requestedQuantity = productQuantities.get(product.getId());
-      product.setStock(product.getStock() - requestedQuantity.intValue());
-      productRepository.save(product);
+  private static String toPrefixPattern(String namePrefix) {
+    if (namePrefix == null || namePrefix.isEmpty()) {
+      return null;
     }
+    String escaped = namePrefix
+        .replace("\\", "\\\\")
+        .replace("%", "\\%")
+        .replace("_", "\\_");
+    return escaped + "%";
   }
 }
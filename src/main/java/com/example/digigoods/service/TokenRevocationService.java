@@ -0,0 +1,87 @@
+package com.example.digigoods.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service tracking revoked JWT tokens, so that authentication can rely on verified claims alone.
+ *
+ * <p>Two checks replace the per-request user lookup: a list of revoked token IDs, each kept only
+ * until the token would have expired anyway, and a per-user cut-off that rejects every token
+ * issued before a given instant and is forgotten once all such tokens have expired. Both live in
+ * memory on this node.
+ */
+@Service
+public class TokenRevocationService {
+
+  private final JwtService jwtService;
+  private final Cache<String, Instant> revokedTokens;
+  private final Cache<Long, Instant> userRevocations;
+
+  /**
+   * Create the token revocation service.
+   *
+   * @param jwtService the JWT service
+   * @param expiration the token lifetime in milliseconds
+   * @param maxRevokedTokens the maximum number of individually revoked tokens kept in memory
+   */
+  public TokenRevocationService(JwtService jwtService,
+                                @Value("${jwt.expiration:86400000}") Long expiration,
+                                @Value("${jwt.revocation.max-size:100000}") long maxRevokedTokens) {
+    this.jwtService = jwtService;
+    this.revokedTokens = Caffeine.newBuilder()
+        .maximumSize(maxRevokedTokens)
+        .expireAfter(Expiry.creating((String tokenId, Instant expiresAt) ->
+            Duration.between(Instant.now(), expiresAt)))
+        .build();
+    this.userRevocations = Caffeine.newBuilder()
+        .expireAfterWrite(Duration.ofMillis(expiration))
+        .build();
+  }
+
+  /**
+   * Revoke a single token.
+   *
+   * @param claims the verified claims of the token to revoke
+   */
+  public void revokeToken(Claims claims) {
+    if (claims.getId() != null && claims.getExpiration() != null) {
+      revokedTokens.put(claims.getId(), claims.getExpiration().toInstant());
+    }
+  }
+
+  /**
+   * Revoke every token issued to a user up to now.
+   *
+   * @param userId the user ID
+   */
+  public void revokeAllTokens(Long userId) {
+    // Token timestamps have second precision, so anything issued within this second is revoked
+    userRevocations.put(userId, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+  }
+
+  /**
+   * Check whether a token has been revoked.
+   *
+   * @param claims the verified claims of the token
+   * @return true if revoked, false otherwise
+   */
+  public boolean isRevoked(Claims claims) {
+    if (claims.getId() != null && revokedTokens.getIfPresent(claims.getId()) != null) {
+      return true;
+    }
+
+    Long userId = jwtService.extractUserId(claims);
+    Instant cutOff = userId != null ? userRevocations.getIfPresent(userId) : null;
+    Date issuedAt = claims.getIssuedAt();
+    return cutOff != null && (issuedAt == null || !issuedAt.toInstant().isAfter(cutOff));
+  }
+}
@@ -0,0 +1,92 @@
+package com.example.digigoods.benchmark;
+
+import com.example.digigoods.DigigoodsApplication;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.CheckoutService;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Measures checkout throughput, in orders per second, of 32 threads checking out one product
+ * each, with group commit off and on.
+ *
+ * <p>Runs against the H2 database of the test profile, where a commit is cheap; the gain from
+ * sharing commits is larger on a database that flushes its log on every commit. Pass
+ * {@code -Dspring.datasource.url=...} (and credentials) through {@code -jvmArgsAppend} to run
+ * against one.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(32)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CheckoutGroupCommitBenchmark {
+
+  @Param({"false", "true"})
+  public boolean groupCommit;
+
+  private ConfigurableApplicationContext context;
+  private CheckoutService checkoutService;
+  private Long userId;
+  private CheckoutRequest request;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(DigigoodsApplication.class)
+        .web(WebApplicationType.NONE)
+        .profiles("test")
+        .properties("checkout.group-commit.enabled=" + groupCommit,
+            "spring.jpa.show-sql=false")
+        .run();
+    checkoutService = context.getBean(CheckoutService.class);
+
+    userId = context.getBean(UserRepository.class)
+        .save(new User(null, "benchmarkuser", "password")).getId();
+    Product product = context.getBean(ProductRepository.class)
+        .save(new Product(null, "Product 1", new BigDecimal("25.00"), Integer.MAX_VALUE));
+    request = new CheckoutRequest(userId, List.of(product.getId()), null);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public OrderResponse checkout() {
+    return checkoutService.processCheckout(request, userId);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(CheckoutGroupCommitBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
@@ -0,0 +1,144 @@
+package com.example.digigoods.benchmark;
+
+import com.example.digigoods.DigigoodsApplication;
+import com.example.digigoods.dto.CartLine;
+import com.example.digigoods.dto.QuoteRequest;
+import com.example.digigoods.dto.QuoteResponse;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.DiscountRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.service.CheckoutService;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Measures checkout pricing through {@link CheckoutService#quote(QuoteRequest)}, with decimal and
+ * fixed-point pricing.
+ *
+ * <p>Once the catalog snapshot and the discount registry are loaded a quote sends no query, so
+ * this covers the whole pricing path of a checkout: cart validation, discount lookup, the rule
+ * index, line pricing, general discounts and the maximum discount rule. Product-specific discounts
+ * each apply to 1% of the catalog, so a larger catalog makes the rule index costlier to compile.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CheckoutPricingBenchmark {
+
+  @Param({"10", "1000"})
+  public int cartSize;
+
+  /**
+   * Number of discount codes applied, half of them product-specific.
+   */
+  @Param({"2", "20"})
+  public int discountCount;
+
+  @Param({"1000", "100000"})
+  public int catalogSize;
+
+  @Param({"false", "true"})
+  public boolean fixedPoint;
+
+  private ConfigurableApplicationContext context;
+  private CheckoutService checkoutService;
+  private QuoteRequest request;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(DigigoodsApplication.class)
+        .web(WebApplicationType.NONE)
+        .profiles("test")
+        .properties("checkout.pricing.fixed-point.enabled=" + fixedPoint,
+            "spring.jpa.show-sql=false")
+        .run();
+    checkoutService = context.getBean(CheckoutService.class);
+
+    Random random = new Random(42);
+    ProductRepository productRepository = context.getBean(ProductRepository.class);
+    List<Product> catalog = new ArrayList<>(catalogSize);
+    for (int i = 0; i < catalogSize; i += 1000) {
+      List<Product> chunk = new ArrayList<>();
+      for (int j = i; j < Math.min(i + 1000, catalogSize); j++) {
+        chunk.add(new Product(null, "Product " + j,
+            BigDecimal.valueOf(100 + random.nextInt(10000), 2), 1000));
+      }
+      catalog.addAll(productRepository.saveAll(chunk));
+    }
+
+    List<Product> shuffled = new ArrayList<>(catalog);
+    Collections.shuffle(shuffled, random);
+    List<Product> cart = shuffled.subList(0, cartSize);
+    List<CartLine> lines = cart.stream()
+        .map(product -> new CartLine(product.getId(), 1 + random.nextInt(3)))
+        .toList();
+
+    // Small percentages, so that stacked discounts stay under the maximum discount
+    LocalDate today = LocalDate.now();
+    List<Discount> discounts = new ArrayList<>();
+    for (int i = 0; i < discountCount; i++) {
+      Set<Product> applicableProducts = new HashSet<>();
+      DiscountType type = DiscountType.GENERAL;
+      if (i % 2 == 0) {
+        type = DiscountType.PRODUCT_SPECIFIC;
+        for (int j = 0; j < catalogSize / 100; j++) {
+          applicableProducts.add(catalog.get(random.nextInt(catalogSize)));
+        }
+        cart.stream().filter(product -> random.nextBoolean()).forEach(applicableProducts::add);
+      }
+      discounts.add(new Discount(null, "CODE" + i, new BigDecimal("1.50"), type,
+          today.minusDays(1), today.plusDays(1), Integer.MAX_VALUE, applicableProducts));
+    }
+    context.getBean(DiscountRepository.class).saveAll(discounts);
+
+    request = new QuoteRequest(null, discounts.stream().map(Discount::getCode).toList(), lines);
+    // Load the catalog snapshot and the discount registry
+    checkoutService.quote(request);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public QuoteResponse quote() {
+    return checkoutService.quote(request);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(CheckoutPricingBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.digigoods.benchmark;
+
+import com.example.digigoods.security.JwtKeyring;
+import com.example.digigoods.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the JWT work done per authenticated checkout request.
+ *
+ * <p>{@code uncachedRequest} replays the original request path, where the filter, token
+ * validation and the checkout controller each parsed and verified the token on their own.
+ * {@code cachedRequest} is the current path: one cached verification stored on the request and
+ * reused by every later consumer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtAuthenticationBenchmark {
+
+  private static final String SECRET = "myVerySecretKeyThatIsAtLeast256BitsLongForHS256Algorithm";
+
+  private JwtService jwtService;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    jwtService = new JwtService(new JwtKeyring("primary", SECRET, ""), 86400000L, 10000);
+    token = jwtService.generateToken(1L, "testuser");
+  }
+
+  @Benchmark
+  public Long uncachedRequest() {
+    String username = parse(token).getSubject();
+    boolean valid = parse(token).getSubject().equals(username)
+        && !parse(token).getExpiration().before(new Date());
+    return valid ? parse(token).get("userId", Long.class) : null;
+  }
+
+  @Benchmark
+  public Long cachedRequest() {
+    Claims claims = jwtService.extractClaims(token);
+    boolean valid = jwtService.validateToken(claims, claims.getSubject());
+    return valid ? jwtService.extractUserId(claims) : null;
+  }
+
+  private static Claims parse(String token) {
+    return Jwts.parser()
+        .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+        .build()
+        .parseSignedClaims(token)
+        .getPayload();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(JwtAuthenticationBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
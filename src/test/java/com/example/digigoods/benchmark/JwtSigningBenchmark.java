@@ -0,0 +1,86 @@
+package com.example.digigoods.benchmark;
+
+import com.example.digigoods.security.JwtKeyring;
+import com.example.digigoods.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares JWT sign/verify throughput with and without the precomputed keyring and parser.
+ *
+ * <p>The {@code legacy} benchmarks derive the HMAC key and build a parser on every call, as
+ * {@link JwtService} used to. Verification goes through {@link JwtService#parseClaims(String)} so
+ * that the claims cache does not hide the cost of the signature check.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtSigningBenchmark {
+
+  private static final String SECRET = "myVerySecretKeyThatIsAtLeast256BitsLongForHS256Algorithm";
+  private static final long EXPIRATION = 86400000L;
+
+  private JwtService jwtService;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    jwtService = new JwtService(new JwtKeyring("primary", SECRET, ""), EXPIRATION, 10000);
+    token = jwtService.generateToken(1L, "testuser");
+  }
+
+  @Benchmark
+  public String legacySign() {
+    return Jwts.builder()
+        .subject("testuser")
+        .claim("userId", 1L)
+        .issuedAt(new Date())
+        .expiration(new Date(System.currentTimeMillis() + EXPIRATION))
+        .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+        .compact();
+  }
+
+  @Benchmark
+  public String sign() {
+    return jwtService.generateToken(1L, "testuser");
+  }
+
+  @Benchmark
+  public Claims legacyVerify() {
+    return Jwts.parser()
+        .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+        .build()
+        .parseSignedClaims(token)
+        .getPayload();
+  }
+
+  @Benchmark
+  public Claims verify() {
+    return jwtService.parseClaims(token);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(JwtSigningBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
@@ -0,0 +1,135 @@
+package com.example.digigoods.benchmark;
+
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.service.Cart;
+import com.example.digigoods.service.ProductCatalogService;
+import com.example.digigoods.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the bookkeeping of {@link ProductService} around a stock update, without the database:
+ * building the cart from repeated product IDs, checking the update counts and telling the catalog
+ * snapshot about the stock left.
+ *
+ * <p>The repository is replaced by a stub whose batched conditional updates always succeed and
+ * whose stock reads answer from memory, so the benchmark isolates the Java side of
+ * {@code validateAndUpdateStock} and of {@code updateStock}, the variant checkout uses with the
+ * products it already loaded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StockBookkeepingBenchmark {
+
+  private static final int STOCK = 1000;
+
+  /**
+   * Number of units in the cart, drawn with repeats from the catalog.
+   */
+  @Param({"1", "100", "10000"})
+  public int cartSize;
+
+  @Param({"1000", "100000"})
+  public int catalogSize;
+
+  private ProductService productService;
+  private List<Long> productIds;
+  private Cart cart;
+  private List<Product> cartProducts;
+
+  @Setup
+  public void setUp() {
+    List<Product> catalog = new ArrayList<>(catalogSize);
+    for (long id = 1; id <= catalogSize; id++) {
+      catalog.add(new Product(id, "Product " + id, new BigDecimal("10.00"), STOCK));
+    }
+    ProductRepository productRepository = stubRepository(catalog);
+    ProductCatalogService catalogService = new ProductCatalogService(productRepository,
+        new ObjectMapper(), 10, Duration.ofDays(1));
+    catalogService.getSnapshot();
+    productService = new ProductService(productRepository, catalogService);
+
+    Random random = new Random(42);
+    productIds = new ArrayList<>(cartSize);
+    for (int i = 0; i < cartSize; i++) {
+      productIds.add(1L + random.nextInt(catalogSize));
+    }
+    cart = Cart.ofProductIds(productIds);
+    cartProducts = productService.getProducts(cart);
+  }
+
+  @Benchmark
+  public void validateAndUpdateStock() {
+    productService.validateAndUpdateStock(productIds);
+  }
+
+  @Benchmark
+  public void updateStock() {
+    productService.updateStock(cart, cartProducts);
+  }
+
+  /**
+   * Stub repository serving the catalog from memory. Stock never changes, so the snapshot is
+   * never invalidated and every run does the same work.
+   */
+  private static ProductRepository stubRepository(List<Product> catalog) {
+    Map<Long, Product> productsById = new HashMap<>();
+    catalog.forEach(product -> productsById.put(product.getId(), product));
+    return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+        new Class<?>[] {ProductRepository.class}, (proxy, method, args) -> switch (
+            method.getName()) {
+          case "findAll" -> catalog;
+          case "findAllByIdIn" -> ((Collection<?>) args[0]).stream()
+              .map(productsById::get)
+              .toList();
+          case "decrementStock" -> {
+            int[] updateCounts = new int[((long[]) args[0]).length];
+            Arrays.fill(updateCounts, 1);
+            yield updateCounts;
+          }
+          case "findStockLevels" -> {
+            Map<Long, Integer> stockLevels = new HashMap<>();
+            for (Object id : (Collection<?>) args[0]) {
+              stockLevels.put((Long) id, STOCK);
+            }
+            yield stockLevels;
+          }
+          default -> throw new UnsupportedOperationException(method.getName());
+        });
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(StockBookkeepingBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
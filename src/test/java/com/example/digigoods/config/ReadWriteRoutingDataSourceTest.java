@@ -0,0 +1,164 @@
+package com.example.digigoods.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.security.UserDetailsServiceImpl;
+import com.example.digigoods.service.ProductService;
+import java.math.BigDecimal;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Tests for read/write routing, against two separate in-memory databases standing for the
+ * primary and the replica.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing-primary",
+    "datasource.replica.enabled=true",
+    "datasource.replica.url=jdbc:h2:mem:routing-replica",
+    "datasource.replica.lag-query=SELECT lag_seconds FROM replica_status",
+    "datasource.replica.max-lag=5s",
+    "datasource.replica.check-interval=1h"
+})
+@ActiveProfiles("test")
+class ReadWriteRoutingDataSourceTest {
+
+  @Autowired
+  private ReadWriteRoutingDataSource routingDataSource;
+
+  @Autowired
+  @Qualifier("primaryDataSource")
+  private DataSource primaryDataSource;
+
+  @Autowired
+  @Qualifier("replicaDataSource")
+  private DataSource replicaDataSource;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private ProductService productService;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private UserDetailsServiceImpl userDetailsService;
+
+  private JdbcTemplate replica;
+
+  @BeforeEach
+  void setUp() {
+    productRepository.deleteAll();
+    productRepository.save(new Product(null, "Primary Product", new BigDecimal("10.00"), 5));
+
+    // The replica is a separate database, so its schema and rows are set up by hand
+    replica = new JdbcTemplate(replicaDataSource);
+    replica.execute("CREATE TABLE IF NOT EXISTS products (id BIGINT PRIMARY KEY, "
+        + "name VARCHAR(255) NOT NULL, price DECIMAL(10, 2) NOT NULL, stock INT NOT NULL)");
+    replica.update("DELETE FROM products");
+    replica.update("INSERT INTO products VALUES (1, 'Replica Product', 10.00, 5)");
+    replica.execute("CREATE TABLE IF NOT EXISTS users (id BIGINT PRIMARY KEY, "
+        + "username VARCHAR(255) NOT NULL, password VARCHAR(255) NOT NULL)");
+    replica.execute("CREATE TABLE IF NOT EXISTS replica_status (lag_seconds DOUBLE)");
+    replica.update("DELETE FROM replica_status");
+    replica.update("INSERT INTO replica_status VALUES (0)");
+    routingDataSource.checkReplica();
+  }
+
+  @Test
+  @DisplayName("Given replica within max lag, when reading in a read-only transaction, "
+      + "then read from the replica")
+  void givenReplicaWithinMaxLag_whenReadingReadOnly_thenReadFromReplica() {
+    // Act
+    List<Product> products = productService.getAllProducts();
+
+    // Assert
+    assertTrue(routingDataSource.isReplicaUsable());
+    assertEquals(List.of("Replica Product"), products.stream().map(Product::getName).toList());
+  }
+
+  @Test
+  @DisplayName("Given replica beyond max lag, when reading in a read-only transaction, "
+      + "then read from the primary")
+  void givenReplicaBeyondMaxLag_whenReadingReadOnly_thenReadFromPrimary() {
+    // Arrange
+    replica.update("UPDATE replica_status SET lag_seconds = 60");
+    routingDataSource.checkReplica();
+
+    // Act
+    List<Product> products = productService.getAllProducts();
+
+    // Assert
+    assertFalse(routingDataSource.isReplicaUsable());
+    assertEquals(List.of("Primary Product"), products.stream().map(Product::getName).toList());
+  }
+
+  @Test
+  @DisplayName("Given replica that cannot be checked, when reading in a read-only transaction, "
+      + "then read from the primary until the replica checks out again")
+  void givenUncheckableReplica_whenReadingReadOnly_thenFallBackToPrimary() {
+    // Arrange
+    replica.execute("DROP TABLE replica_status");
+    routingDataSource.checkReplica();
+
+    // Act
+    List<Product> products = productService.getAllProducts();
+
+    // Assert
+    assertEquals(List.of("Primary Product"), products.stream().map(Product::getName).toList());
+
+    // Recover
+    replica.execute("CREATE TABLE replica_status (lag_seconds DOUBLE)");
+    replica.update("INSERT INTO replica_status VALUES (0)");
+    routingDataSource.checkReplica();
+    assertEquals(List.of("Replica Product"),
+        productService.getAllProducts().stream().map(Product::getName).toList());
+  }
+
+  @Test
+  @DisplayName("Given usable replica, when writing, then write to the primary")
+  void givenUsableReplica_whenWriting_thenWriteToPrimary() {
+    // Act
+    productRepository.save(new Product(null, "New Product", new BigDecimal("1.00"), 1));
+
+    // Assert
+    JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+    assertEquals(2, primary.queryForObject("SELECT COUNT(*) FROM products", Integer.class));
+    assertEquals(1, replica.queryForObject("SELECT COUNT(*) FROM products", Integer.class));
+  }
+
+  @Test
+  @DisplayName("Given usable replica without a new user, when authenticating the user, "
+      + "then look the user up on the primary")
+  void givenUsableReplicaWithoutNewUser_whenAuthenticating_thenLookUpOnPrimary() {
+    // Arrange
+    User user = userRepository.save(new User(null, "routinguser", "password"));
+
+    try {
+      // Act
+      boolean found = userDetailsService.findAccount("routinguser").isPresent();
+
+      // Assert
+      assertTrue(routingDataSource.isReplicaUsable());
+      assertTrue(found);
+    } finally {
+      userRepository.delete(user);
+    }
+  }
+}
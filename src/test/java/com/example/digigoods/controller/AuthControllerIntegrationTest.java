@@ -1,13 +1,20 @@
 package com.example.digigoods.controller;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.example.digigoods.dto.CheckoutRequest;
 import com.example.digigoods.dto.LoginRequest;
 import com.example.digigoods.model.User;
 import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.JwtService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,6 +22,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -42,6 +50,11 @@ class AuthControllerIntegrationTest {
   @Autowired
   private PasswordEncoder passwordEncoder;
 
+  @Autowired
+  private JwtService jwtService;
+
+  private User testUser;
+
   @BeforeEach
   void setUp() {
     // Set up MockMvc
@@ -49,10 +62,10 @@ class AuthControllerIntegrationTest {
 
     // Clear and set up test data
     // Create test user
-    User testUser = new User();
+    testUser = new User();
     testUser.setUsername("testuser");
     testUser.setPassword(passwordEncoder.encode("password"));
-    userRepository.save(testUser);
+    testUser = userRepository.save(testUser);
   }
 
   @Test
@@ -113,4 +126,111 @@ class AuthControllerIntegrationTest {
         .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.message").value("Password is required"));
   }
+
+  @Test
+  @DisplayName("Given weaker stored hash, when logging in, then upgrade the stored hash "
+      + "and keep the new token valid")
+  void givenWeakerStoredHash_whenLoggingIn_thenUpgradeTheStoredHash() throws Exception {
+    // Arrange
+    User weakUser = new User();
+    weakUser.setUsername("weakuser");
+    weakUser.setPassword(new BCryptPasswordEncoder(4).encode("password"));
+    userRepository.save(weakUser);
+    LoginRequest loginRequest = new LoginRequest("weakuser", "password");
+
+    // Act
+    String response = mockMvc.perform(post("/auth/login")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(loginRequest)))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    // Assert
+    String storedHash = userRepository.findByUsername("weakuser").orElseThrow().getPassword();
+    assertTrue(storedHash.startsWith("$2a$10$"));
+    assertTrue(passwordEncoder.matches("password", storedHash));
+    // Re-encoding the same password is not a credential change, so the token is not revoked
+    JsonNode login = objectMapper.readTree(response);
+    securedMockMvc().perform(get("/orders")
+            .header("Authorization", "Bearer " + login.get("token").asText()))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  @DisplayName("Given token issued before a password change, when calling protected endpoint, "
+      + "then return unauthorized")
+  void givenTokenIssuedBeforePasswordChange_whenCallingProtectedEndpoint_thenReturnUnauthorized()
+      throws Exception {
+    // Arrange
+    String token = jwtService.generateToken(testUser.getId(), testUser.getUsername());
+    testUser.setPassword(passwordEncoder.encode("newpassword"));
+
+    // Act
+    userRepository.saveAndFlush(testUser);
+
+    // Assert
+    securedMockMvc().perform(get("/orders")
+            .header("Authorization", "Bearer " + token))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  @DisplayName("Given token of a deleted user, when calling protected endpoint, "
+      + "then return unauthorized")
+  void givenTokenOfDeletedUser_whenCallingProtectedEndpoint_thenReturnUnauthorized()
+      throws Exception {
+    // Arrange
+    String token = jwtService.generateToken(testUser.getId(), testUser.getUsername());
+
+    // Act
+    userRepository.delete(testUser);
+    userRepository.flush();
+
+    // Assert
+    securedMockMvc().perform(get("/orders")
+            .header("Authorization", "Bearer " + token))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  @DisplayName("Given logged out token, when calling protected endpoint, then return unauthorized")
+  void givenLoggedOutToken_whenCallingProtectedEndpoint_thenReturnUnauthorized() throws Exception {
+    // Arrange
+    String token = jwtService.generateToken(testUser.getId(), testUser.getUsername());
+    CheckoutRequest checkoutRequest = new CheckoutRequest(testUser.getId(), List.of(1L), null);
+    MockMvc securedMockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+        .apply(springSecurity())
+        .build();
+
+    // Act
+    securedMockMvc.perform(post("/auth/logout")
+            .header("Authorization", "Bearer " + token))
+        .andExpect(status().isNoContent());
+
+    // Assert
+    securedMockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(checkoutRequest)))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  @DisplayName("Given no token, when logging out, then return unauthorized")
+  void givenNoToken_whenLoggingOut_thenReturnUnauthorized() throws Exception {
+    // Arrange
+    MockMvc securedMockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+        .apply(springSecurity())
+        .build();
+
+    // Act & Assert
+    securedMockMvc.perform(post("/auth/logout"))
+        .andExpect(status().isUnauthorized());
+  }
+
+  private MockMvc securedMockMvc() {
+    return MockMvcBuilders.webAppContextSetup(webApplicationContext)
+        .apply(springSecurity())
+        .build();
+  }
 }
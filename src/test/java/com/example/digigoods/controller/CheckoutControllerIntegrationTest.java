@@ -0,0 +1,207 @@
+package com.example.digigoods.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.digigoods.dto.CartLine;
+import com.example.digigoods.dto.QuoteRequest;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.DiscountRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Integration tests for CheckoutController.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Transactional
+class CheckoutControllerIntegrationTest {
+
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private DiscountRepository discountRepository;
+
+  private Product product;
+
+  @BeforeEach
+  void setUp() {
+    // Set up MockMvc
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+    // Create test data
+    product = productRepository.save(
+        new Product(null, "Quote Product", new BigDecimal("100.00"), 10));
+
+    Discount discount = new Discount();
+    discount.setCode("QUOTE10");
+    discount.setPercentage(new BigDecimal("10.00"));
+    discount.setType(DiscountType.GENERAL);
+    discount.setValidFrom(LocalDate.now().minusDays(1));
+    discount.setValidUntil(LocalDate.now().plusDays(30));
+    discount.setRemainingUses(10);
+    discount.setApplicableProducts(new HashSet<>());
+    discountRepository.save(discount);
+  }
+
+  @Test
+  @DisplayName("Given null product ID, when checking out, then return bad request")
+  void givenNullProductId_whenCheckingOut_thenReturnBadRequest() throws Exception {
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"userId\": 1, \"productIds\": [1, null]}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Product IDs cannot contain null"));
+  }
+
+  @Test
+  @DisplayName("Given null discount code or cart line, when quoting, then return bad request")
+  void givenNullDiscountCodeOrCartLine_whenQuoting_thenReturnBadRequest() throws Exception {
+    // Act & Assert
+    mockMvc.perform(post("/orders/quote")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"productIds\": [1], \"discountCodes\": [null]}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Discount codes cannot contain null"));
+    mockMvc.perform(post("/orders/quote")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"lines\": [null]}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Cart lines cannot contain null"));
+  }
+
+  @Test
+  @DisplayName("Given valid cart and discount code, when quoting, then return priced cart "
+      + "without taking stock")
+  void givenValidCartAndDiscountCode_whenQuoting_thenReturnPricedCart() throws Exception {
+    // Arrange
+    QuoteRequest quoteRequest = new QuoteRequest(null, List.of("QUOTE10"),
+        List.of(new CartLine(product.getId(), 2)));
+
+    // Act & Assert
+    mockMvc.perform(post("/orders/quote")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(quoteRequest)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.lines.length()").value(1))
+        .andExpect(jsonPath("$.lines[0].productId").value(product.getId()))
+        .andExpect(jsonPath("$.lines[0].quantity").value(2))
+        .andExpect(jsonPath("$.lines[0].linePrice").value(200.00))
+        .andExpect(jsonPath("$.discounts[0].code").value("QUOTE10"))
+        .andExpect(jsonPath("$.discounts[0].amount").value(20.00))
+        .andExpect(jsonPath("$.originalSubtotal").value(200.00))
+        .andExpect(jsonPath("$.finalPrice").value(180.00));
+    assertEquals(10, productRepository.findById(product.getId()).orElseThrow().getStock());
+  }
+
+  @Test
+  @DisplayName("Given invalid discount code, when quoting, then return bad request")
+  void givenInvalidDiscountCode_whenQuoting_thenReturnBadRequest() throws Exception {
+    // Arrange
+    QuoteRequest quoteRequest = new QuoteRequest(List.of(product.getId()), List.of("BOGUS42"),
+        null);
+
+    // Act & Assert
+    mockMvc.perform(post("/orders/quote")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(quoteRequest)))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message")
+            .value("Invalid discount code 'BOGUS42': discount code not found"));
+  }
+
+  @Test
+  @DisplayName("Given unknown product, when quoting, then return not found")
+  void givenUnknownProduct_whenQuoting_thenReturnNotFound() throws Exception {
+    // Arrange
+    Long unknownId = product.getId() + 1000;
+    QuoteRequest quoteRequest = new QuoteRequest(List.of(product.getId(), unknownId), null,
+        null);
+
+    // Act & Assert
+    mockMvc.perform(post("/orders/quote")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(quoteRequest)))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.message").value("Products not found with IDs: [" + unknownId + "]"));
+  }
+
+  @Test
+  @DisplayName("Given quantity over stock, when quoting, then return bad request")
+  void givenQuantityOverStock_whenQuoting_thenReturnBadRequest() throws Exception {
+    // Arrange
+    QuoteRequest quoteRequest = new QuoteRequest(null, null,
+        List.of(new CartLine(product.getId(), 11)));
+
+    // Act & Assert
+    mockMvc.perform(post("/orders/quote")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(quoteRequest)))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Insufficient stock for product "
+            + product.getId() + ". Requested: 11, Available: 10"));
+  }
+
+  @Test
+  @DisplayName("Given empty cart, when quoting, then return bad request")
+  void givenEmptyCart_whenQuoting_thenReturnBadRequest() throws Exception {
+    // Act & Assert
+    mockMvc.perform(post("/orders/quote")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Product IDs cannot be empty"));
+    mockMvc.perform(post("/orders/quote")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"productIds\": [], \"lines\": []}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Product IDs cannot be empty"));
+  }
+
+  @Test
+  @DisplayName("Given cart line with zero quantity, when quoting, then return bad request")
+  void givenCartLineWithZeroQuantity_whenQuoting_thenReturnBadRequest() throws Exception {
+    // Arrange
+    QuoteRequest quoteRequest = new QuoteRequest(null, null,
+        List.of(new CartLine(product.getId(), 0)));
+
+    // Act & Assert
+    mockMvc.perform(post("/orders/quote")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(quoteRequest)))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Quantity must be at least 1"));
+  }
+}
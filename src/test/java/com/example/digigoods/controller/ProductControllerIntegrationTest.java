@@ -1,20 +1,27 @@
 package com.example.digigoods.controller;
 
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.example.digigoods.model.Product;
 import com.example.digigoods.repository.ProductRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -101,4 +108,151 @@ class ProductControllerIntegrationTest {
         .andExpect(jsonPath("$").isArray())
         .andExpect(jsonPath("$.length()").value(0));
   }
+
+  @Test
+  @DisplayName("Given a matching ETag, when getting all products, then return not modified")
+  void givenMatchingEtag_whenGettingAllProducts_thenReturnNotModified() throws Exception {
+    // Arrange
+    String etag = mockMvc.perform(get("/products"))
+        .andExpect(status().isOk())
+        .andExpect(header().exists(HttpHeaders.ETAG))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    // Act & Assert
+    mockMvc.perform(get("/products")
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, etag))
+        .andExpect(content().bytes(new byte[0]));
+  }
+
+  @Test
+  @DisplayName("Given a product price change, when getting all products, then return new ETag")
+  void givenProductPriceChange_whenGettingAllProducts_thenReturnNewEtag() throws Exception {
+    // Arrange
+    String etag = mockMvc.perform(get("/products"))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    product1.setPrice(new BigDecimal("80.00"));
+    productRepository.saveAndFlush(product1);
+
+    // Act & Assert
+    mockMvc.perform(get("/products")
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+        .andExpect(jsonPath("$[0].price").value(80.00));
+  }
+
+  @Test
+  @DisplayName("Given more products than the limit, when paging, then follow the cursor to the end")
+  void givenMoreProductsThanLimit_whenPaging_thenFollowCursorToEnd() throws Exception {
+    // Arrange
+    String cursor = mockMvc.perform(get("/products/page")
+            .param("limit", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items.length()").value(1))
+        .andExpect(jsonPath("$.items[0].id").value(product1.getId()))
+        .andExpect(jsonPath("$.nextCursor").isString())
+        .andReturn().getResponse().getContentAsString();
+    cursor = objectMapper.readTree(cursor).get("nextCursor").asText();
+
+    // Act & Assert
+    mockMvc.perform(get("/products/page")
+            .param("limit", "1")
+            .param("cursor", cursor))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items.length()").value(1))
+        .andExpect(jsonPath("$.items[0].id").value(product2.getId()))
+        .andExpect(jsonPath("$.nextCursor").doesNotExist());
+  }
+
+  @Test
+  @DisplayName("Given filters, when paging, then return only matching products")
+  void givenFilters_whenPaging_thenReturnOnlyMatchingProducts() throws Exception {
+    // Arrange
+    Product soldOut = new Product();
+    soldOut.setName("Test Product 3");
+    soldOut.setPrice(new BigDecimal("60.00"));
+    soldOut.setStock(0);
+    productRepository.save(soldOut);
+
+    Product otherName = new Product();
+    otherName.setName("Other_Product");
+    otherName.setPrice(new BigDecimal("70.00"));
+    otherName.setStock(3);
+    productRepository.save(otherName);
+
+    // Act & Assert
+    mockMvc.perform(get("/products/page")
+            .param("minPrice", "55.00")
+            .param("maxPrice", "100.00")
+            .param("namePrefix", "Test")
+            .param("inStock", "true"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items.length()").value(1))
+        .andExpect(jsonPath("$.items[0].id").value(product1.getId()));
+
+    mockMvc.perform(get("/products/page")
+            .param("namePrefix", "Other_"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items.length()").value(1))
+        .andExpect(jsonPath("$.items[0].name").value("Other_Product"));
+  }
+
+  @Test
+  @DisplayName("Given an invalid cursor, when paging, then return bad request")
+  void givenInvalidCursor_whenPaging_thenReturnBadRequest() throws Exception {
+    // Act & Assert
+    mockMvc.perform(get("/products/page")
+            .param("cursor", "not-a-cursor"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Invalid cursor: not-a-cursor"));
+  }
+
+  @Test
+  @DisplayName("Given a limit above the maximum, when paging, then return bad request")
+  void givenLimitAboveMaximum_whenPaging_thenReturnBadRequest() throws Exception {
+    // Act & Assert
+    mockMvc.perform(get("/products/page")
+            .param("limit", "501"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Limit must be at most 500"));
+  }
+
+  @Test
+  @DisplayName("Given products in database, when exporting, then stream one JSON line per product")
+  void givenProductsInDatabase_whenExporting_thenStreamOneJsonLinePerProduct() throws Exception {
+    // Act
+    String body = mockMvc.perform(get("/products/export"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+        .andReturn().getResponse().getContentAsString();
+
+    // Assert
+    String[] lines = body.split("\n");
+    assertEquals(2, lines.length);
+    assertEquals(product1.getId(), objectMapper.readTree(lines[0]).get("id").asLong());
+    assertEquals("Test Product 2", objectMapper.readTree(lines[1]).get("name").asText());
+  }
+
+  @Test
+  @DisplayName("Given an after cursor and gzip, when exporting, then resume compressed after it")
+  void givenAfterCursorAndGzip_whenExporting_thenResumeCompressedAfterIt() throws Exception {
+    // Act
+    byte[] body = mockMvc.perform(get("/products/export")
+            .param("after", product1.getId().toString())
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    // Assert
+    String[] lines;
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+    }
+    assertEquals(1, lines.length);
+    assertEquals(product2.getId(), objectMapper.readTree(lines[0]).get("id").asLong());
+  }
 }
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Duration;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -121,6 +122,17 @@ class ExceptionClassesTest {
       assertEquals(expectedMessage, exception.getMessage());
       assertTrue(exception instanceof RuntimeException);
     }
+
+    @Test
+    @DisplayName("Given an invalid code, when creating exception, "
+        + "then no stack trace should be captured")
+    void givenInvalidCode_whenCreatingException_thenNoStackTraceShouldBeCaptured() {
+      // Arrange & Act
+      InvalidDiscountException exception = new InvalidDiscountException("BOGUS", "not found");
+
+      // Assert
+      assertEquals(0, exception.getStackTrace().length);
+    }
   }
 
   @Nested
@@ -191,6 +203,42 @@ class ExceptionClassesTest {
     }
   }
 
+  @Nested
+  @DisplayName("ServiceUnavailableException Tests")
+  class ServiceUnavailableExceptionTest {
+
+    @Test
+    @DisplayName("Given custom message and retry delay, when creating exception, "
+        + "then message and retry delay should be set correctly")
+    void givenCustomMessageAndRetryDelay_whenCreatingException_thenBothShouldBeSetCorrectly() {
+      // Arrange
+      String customMessage = "Custom service unavailable message";
+      Duration retryAfter = Duration.ofSeconds(5);
+
+      // Act
+      ServiceUnavailableException exception =
+          new ServiceUnavailableException(customMessage, retryAfter);
+
+      // Assert
+      assertEquals(customMessage, exception.getMessage());
+      assertEquals(retryAfter, exception.getRetryAfter());
+      assertTrue(exception instanceof RuntimeException);
+    }
+
+    @Test
+    @DisplayName("Given retry delay only, when creating exception, "
+        + "then default message should be used")
+    void givenRetryDelayOnly_whenCreatingException_thenDefaultMessageShouldBeUsed() {
+      // Arrange & Act
+      ServiceUnavailableException exception =
+          new ServiceUnavailableException(Duration.ofSeconds(1));
+
+      // Assert
+      assertEquals("Server is busy, please retry later", exception.getMessage());
+      assertEquals(Duration.ofSeconds(1), exception.getRetryAfter());
+    }
+  }
+
   @Nested
   @DisplayName("UnauthorizedAccessException Tests")
   class UnauthorizedAccessExceptionTest {
@@ -237,6 +285,7 @@ class ExceptionClassesTest {
       assertTrue(new MissingJwtTokenException() instanceof RuntimeException);
       assertTrue(new ProductNotFoundException("test") instanceof RuntimeException);
       assertTrue(new UnauthorizedAccessException() instanceof RuntimeException);
+      assertTrue(new ServiceUnavailableException(Duration.ZERO) instanceof RuntimeException);
     }
 
     @Test
@@ -249,6 +298,7 @@ class ExceptionClassesTest {
       assertNotNull(new MissingJwtTokenException().getMessage());
       assertNotNull(new ProductNotFoundException("test").getMessage());
       assertNotNull(new UnauthorizedAccessException().getMessage());
+      assertNotNull(new ServiceUnavailableException(Duration.ZERO).getMessage());
     }
   }
 }
@@ -0,0 +1,94 @@
+package com.example.digigoods.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class BoundedPasswordEncoderTest {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private BoundedPasswordEncoder encoder;
+
+  @AfterEach
+  void tearDown() {
+    encoder.close();
+  }
+
+  @Test
+  @DisplayName("Given idle pool, when encoding and matching, then delegate and record hash time")
+  void givenIdlePool_whenEncodingAndMatching_thenDelegateAndRecordHashTime() {
+    // Arrange
+    encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 1,
+        Duration.ofSeconds(2), meterRegistry);
+
+    // Act
+    String hash = encoder.encode("password");
+
+    // Assert
+    assertTrue(encoder.matches("password", hash));
+    assertFalse(encoder.matches("wrong", hash));
+    assertEquals(3, meterRegistry.get("password.hash").timer().count());
+  }
+
+  @Test
+  @DisplayName("Given full queue, when matching, then throw ServiceUnavailableException")
+  void givenFullQueue_whenMatching_thenThrowServiceUnavailableException() throws Exception {
+    // Arrange
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    encoder = new BoundedPasswordEncoder(new BlockingPasswordEncoder(started, release), 1, 1,
+        Duration.ofSeconds(3), meterRegistry);
+    final CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(
+        () -> encoder.matches("password", "hash"));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    final CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(
+        () -> encoder.matches("password", "hash"));
+    while (meterRegistry.get("executor.queued").gauge().value() < 1) {
+      Thread.onSpinWait();
+    }
+
+    // Act
+    ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+        () -> encoder.matches("password", "hash"));
+
+    // Assert
+    assertEquals(Duration.ofSeconds(3), exception.getRetryAfter());
+    release.countDown();
+    assertTrue(running.get(5, TimeUnit.SECONDS));
+    assertTrue(queued.get(5, TimeUnit.SECONDS));
+  }
+
+  private record BlockingPasswordEncoder(CountDownLatch started, CountDownLatch release)
+      implements PasswordEncoder {
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+      return rawPassword.toString();
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+      started.countDown();
+      try {
+        return release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+  }
+}
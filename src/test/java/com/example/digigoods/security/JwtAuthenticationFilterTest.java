@@ -0,0 +1,107 @@
+package com.example.digigoods.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.service.JwtService;
+import com.example.digigoods.service.TokenRevocationService;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+  private static final String SECRET = "myVerySecretKeyThatIsAtLeast256BitsLongForHS256Algorithm";
+
+  @Mock
+  private UserDetailsService userDetailsService;
+
+  private JwtService jwtService;
+  private TokenRevocationService tokenRevocationService;
+  private MockHttpServletRequest request;
+
+  @BeforeEach
+  void setUp() {
+    jwtService = new JwtService(new JwtKeyring("primary", SECRET, ""), 86400000L, 100);
+    tokenRevocationService = new TokenRevocationService(jwtService, 86400000L, 100);
+    request = new MockHttpServletRequest();
+    request.addHeader("Authorization", "Bearer " + jwtService.generateToken(1L, "testuser"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  @DisplayName("Given trusted claims mode, when filtering, "
+      + "then authenticate from claims without user lookup")
+  void givenTrustedClaimsMode_whenFiltering_thenAuthenticateFromClaimsWithoutUserLookup()
+      throws Exception {
+    // Arrange
+    JwtAuthenticationFilter filter = new JwtAuthenticationFilter(
+        jwtService, userDetailsService, tokenRevocationService, true);
+
+    // Act
+    filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+    // Assert
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    AuthenticatedUser principal = assertInstanceOf(AuthenticatedUser.class,
+        authentication.getPrincipal());
+    assertEquals(1L, principal.userId());
+    assertEquals("testuser", principal.username());
+    verify(userDetailsService, never()).loadUserByUsername(anyString());
+  }
+
+  @Test
+  @DisplayName("Given user lookup mode, when filtering, then authenticate from user details")
+  void givenUserLookupMode_whenFiltering_thenAuthenticateFromUserDetails() throws Exception {
+    // Arrange
+    JwtAuthenticationFilter filter = new JwtAuthenticationFilter(
+        jwtService, userDetailsService, tokenRevocationService, false);
+    when(userDetailsService.loadUserByUsername("testuser"))
+        .thenReturn(new User("testuser", "password", List.of()));
+
+    // Act
+    filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+    // Assert
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    assertInstanceOf(User.class, authentication.getPrincipal());
+  }
+
+  @Test
+  @DisplayName("Given revoked user tokens, when filtering, then do not authenticate")
+  void givenRevokedUserTokens_whenFiltering_thenDoNotAuthenticate() throws Exception {
+    // Arrange
+    JwtAuthenticationFilter filter = new JwtAuthenticationFilter(
+        jwtService, userDetailsService, tokenRevocationService, true);
+    tokenRevocationService.revokeAllTokens(1L);
+
+    // Act
+    filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+    // Assert
+    assertNull(SecurityContextHolder.getContext().getAuthentication());
+    assertNull(request.getAttribute(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE));
+  }
+}
@@ -0,0 +1,111 @@
+package com.example.digigoods.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsServiceImplTest {
+
+  @Mock
+  private UserRepository userRepository;
+
+  private MeterRegistry meterRegistry;
+  private UserDetailsServiceImpl userDetailsService;
+  private User user;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    userDetailsService = new UserDetailsServiceImpl(userRepository, meterRegistry, 100,
+        Duration.ofMinutes(5), Duration.ofSeconds(30));
+    user = new User(1L, "testuser", "hash");
+  }
+
+  @Test
+  @DisplayName("Given cached user, when loading twice, then query repository once")
+  void givenCachedUser_whenLoadingTwice_thenQueryRepositoryOnce() {
+    // Arrange
+    when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+
+    // Act
+    userDetailsService.loadUserByUsername("testuser");
+    UserAccountDetails details =
+        (UserAccountDetails) userDetailsService.loadUserByUsername("testuser");
+
+    // Assert
+    assertEquals(1L, details.getUserId());
+    assertEquals("hash", details.getPassword());
+    verify(userRepository, times(1)).findByUsername("testuser");
+    assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users")
+        .tag("result", "hit").functionCounter().count());
+  }
+
+  @Test
+  @DisplayName("Given unknown username, when loading twice, then cache the negative lookup")
+  void givenUnknownUsername_whenLoadingTwice_thenCacheTheNegativeLookup() {
+    // Arrange
+    when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+    // Act & Assert
+    assertThrows(UsernameNotFoundException.class,
+        () -> userDetailsService.loadUserByUsername("ghost"));
+    assertThrows(UsernameNotFoundException.class,
+        () -> userDetailsService.loadUserByUsername("ghost"));
+    verify(userRepository, times(1)).findByUsername("ghost");
+  }
+
+  @Test
+  @DisplayName("Given renamed user, when evicting by ID, then reload under both usernames")
+  void givenRenamedUser_whenEvictingById_thenReloadUnderBothUsernames() {
+    // Arrange
+    when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+    userDetailsService.loadUserByUsername("testuser");
+
+    // Act
+    userDetailsService.evict(1L, "renameduser");
+    userDetailsService.loadUserByUsername("testuser");
+
+    // Assert
+    verify(userRepository, times(2)).findByUsername("testuser");
+  }
+
+  @Test
+  @DisplayName("Given eviction during a load, when loading again, then query repository again")
+  void givenEvictionDuringLoad_whenLoadingAgain_thenQueryRepositoryAgain() {
+    // Arrange
+    User changedUser = new User(1L, "testuser", "newhash");
+    when(userRepository.findByUsername("testuser"))
+        .thenAnswer(invocation -> {
+          // A password change commits and evicts while the old row is being read
+          userDetailsService.evict(1L, "testuser");
+          return Optional.of(user);
+        })
+        .thenReturn(Optional.of(changedUser));
+
+    // Act
+    userDetailsService.loadUserByUsername("testuser");
+    UserAccountDetails details =
+        (UserAccountDetails) userDetailsService.loadUserByUsername("testuser");
+
+    // Assert
+    assertEquals("newhash", details.getPassword());
+    verify(userRepository, times(2)).findByUsername("testuser");
+  }
+}
@@ -0,0 +1,61 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.digigoods.dto.CartLine;
+import com.example.digigoods.exception.InsufficientStockException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CartTest {
+
+  @Test
+  @DisplayName("Given repeated IDs and lines, when building a cart, "
+      + "then add up quantities in ID order")
+  void givenRepeatedIdsAndLines_whenBuildingCart_thenAddUpQuantitiesInIdOrder() {
+    // Act
+    Cart cart = Cart.of(List.of(3L, 1L, 3L),
+        List.of(new CartLine(2L, 5), new CartLine(3L, 10)));
+
+    // Assert
+    assertArrayEquals(new long[] {1L, 2L, 3L}, cart.productIds());
+    assertArrayEquals(new int[] {1, 5, 12}, cart.quantities());
+    assertEquals(List.of(1L, 2L, 3L), cart.productIdList());
+    assertEquals(1, cart.indexOf(2L));
+    assertEquals(-1, cart.indexOf(4L));
+  }
+
+  @Test
+  @DisplayName("Given only cart lines, when building a cart, then keep one line per product")
+  void givenOnlyCartLines_whenBuildingCart_thenKeepOneLinePerProduct() {
+    // Arrange
+    List<CartLine> lines = new ArrayList<>();
+    for (long id = 5000; id > 0; id--) {
+      lines.add(new CartLine(id, 2));
+    }
+
+    // Act
+    Cart cart = Cart.of(null, lines);
+
+    // Assert
+    assertEquals(5000, cart.size());
+    assertEquals(1L, cart.productId(0));
+    assertEquals(2, cart.quantity(4999));
+  }
+
+  @Test
+  @DisplayName("Given quantities beyond any stock level, when building a cart, "
+      + "then throw InsufficientStockException")
+  void givenQuantitiesBeyondAnyStock_whenBuildingCart_thenThrowInsufficientStockException() {
+    // Arrange
+    List<CartLine> lines = List.of(
+        new CartLine(1L, Integer.MAX_VALUE), new CartLine(1L, Integer.MAX_VALUE));
+
+    // Act & Assert
+    assertThrows(InsufficientStockException.class, () -> Cart.of(null, lines));
+  }
+}
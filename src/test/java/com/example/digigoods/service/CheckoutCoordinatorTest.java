@@ -0,0 +1,197 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.ServiceUnavailableException;
+import com.example.digigoods.repository.OrderRecord;
+import com.example.digigoods.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CheckoutCoordinatorTest {
+
+  @Mock
+  private OrderRepository orderRepository;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private final AtomicLong orderIds = new AtomicLong();
+  private CheckoutCoordinator checkoutCoordinator;
+
+  @BeforeEach
+  void setUp() {
+    when(transactionManager.getTransaction(any())).thenAnswer(
+        invocation -> new SimpleTransactionStatus());
+    checkoutCoordinator = new CheckoutCoordinator(orderRepository, entityManager,
+        transactionManager, true, Duration.ofMillis(1), 64, Duration.ofMillis(500));
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    checkoutCoordinator.close();
+  }
+
+  @Test
+  @DisplayName("Given a checkout throwing an error, when committing, "
+      + "then fail it and keep committing later checkouts")
+  void givenCheckoutThrowingError_whenCommitting_thenFailItAndKeepCommitting() {
+    // Arrange
+    Error error = new StackOverflowError();
+
+    // Act
+    Error thrown = assertThrows(Error.class, () -> checkoutCoordinator.commit(() -> {
+      throw error;
+    }));
+    OrderRecord order = checkoutCoordinator.commit(this::pendingOrder);
+
+    // Assert
+    assertSame(error, thrown);
+    assertEquals(orderIds.get(), order.id());
+  }
+
+  @Test
+  @DisplayName("Given a closed coordinator, when committing, then commit on the calling thread")
+  void givenClosedCoordinator_whenCommitting_thenCommitOnCallingThread() throws Exception {
+    // Arrange
+    checkoutCoordinator.close();
+    Thread caller = Thread.currentThread();
+    AtomicBoolean ranOnCaller = new AtomicBoolean();
+
+    // Act
+    OrderRecord order = checkoutCoordinator.commit(() -> {
+      ranOnCaller.set(Thread.currentThread() == caller);
+      return pendingOrder();
+    });
+
+    // Assert
+    assertEquals(orderIds.get(), order.id());
+    assertTrue(ranOnCaller.get());
+  }
+
+  @Test
+  @DisplayName("Given a batch running past the maximum wait, when a checkout is queued behind it, "
+      + "then withdraw the checkout with ServiceUnavailableException")
+  void givenBatchPastMaxWait_whenCheckoutQueuedBehindIt_thenWithdrawIt() throws Exception {
+    // Arrange
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    final CompletableFuture<OrderRecord> slow = CompletableFuture.supplyAsync(
+        () -> checkoutCoordinator.commit(() -> {
+          started.countDown();
+          awaitQuietly(release);
+          return pendingOrder();
+        }));
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    AtomicBoolean queuedRan = new AtomicBoolean();
+
+    // Act & Assert
+    assertThrows(ServiceUnavailableException.class, () -> checkoutCoordinator.commit(() -> {
+      queuedRan.set(true);
+      return pendingOrder();
+    }));
+    release.countDown();
+    checkoutCoordinator.close();
+    assertFalse(queuedRan.get());
+    assertThrows(Exception.class, () -> slow.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  @DisplayName("Given several failing checkouts in one batch, when committing, "
+      + "then fail each and run the others at most twice")
+  void givenSeveralFailingCheckoutsInBatch_whenCommitting_thenRunOthersAtMostTwice()
+      throws Exception {
+    // Arrange
+    checkoutCoordinator.close();
+    checkoutCoordinator = new CheckoutCoordinator(orderRepository, entityManager,
+        transactionManager, true, Duration.ofMillis(200), 64, Duration.ofSeconds(10));
+    int checkouts = 8;
+    AtomicIntegerArray runs = new AtomicIntegerArray(checkouts);
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(checkouts);
+    List<CompletableFuture<OrderRecord>> outcomes = new ArrayList<>();
+    for (int i = 0; i < checkouts; i++) {
+      int index = i;
+      outcomes.add(CompletableFuture.supplyAsync(() -> {
+        awaitQuietly(start);
+        return checkoutCoordinator.commit(() -> {
+          runs.incrementAndGet(index);
+          if (index % 2 == 0) {
+            throw new InsufficientStockException("sold out");
+          }
+          return pendingOrder();
+        });
+      }, executor));
+    }
+    executor.shutdown();
+
+    // Act
+    start.countDown();
+    int failures = 0;
+    for (CompletableFuture<OrderRecord> outcome : outcomes) {
+      try {
+        outcome.get(10, TimeUnit.SECONDS);
+      } catch (ExecutionException e) {
+        assertInstanceOf(InsufficientStockException.class, e.getCause());
+        failures++;
+      }
+    }
+
+    // Assert
+    assertEquals(checkouts / 2, failures);
+    for (int i = 0; i < checkouts; i++) {
+      assertTrue(runs.get(i) <= (i % 2 == 0 ? 1 : 2), "checkout " + i + " ran " + runs.get(i));
+    }
+  }
+
+  private PendingOrder pendingOrder() {
+    OrderRecord order = new OrderRecord(orderIds.incrementAndGet(), 1L, BigDecimal.TEN,
+        BigDecimal.TEN, LocalDateTime.now(), List.of(), new long[0]);
+    return new PendingOrder(order, Cart.ofProductIds(List.of(1L)), List.of());
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import com.example.digigoods.dto.CartLine;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Tests for checkouts group-committed by the checkout coordinator. Batches commit on the
+ * committer thread, so this class does not roll back and cleans up after itself instead.
+ */
+@SpringBootTest(properties = {
+    "checkout.group-commit.enabled=true", "checkout.group-commit.window=50ms"})
+@ActiveProfiles("test")
+class CheckoutGroupCommitTest {
+
+  private static final int BUYERS = 16;
+
+  @Autowired
+  private CheckoutService checkoutService;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  private User user;
+  private Product product;
+
+  @BeforeEach
+  void setUp() {
+    user = userRepository.save(new User(null, "groupcommituser", "password"));
+    product = productRepository.save(
+        new Product(null, "Product 1", new BigDecimal("25.00"), 100));
+  }
+
+  @AfterEach
+  void tearDown() {
+    orderRepository.deleteAll();
+    productRepository.deleteAll();
+    userRepository.delete(user);
+  }
+
+  @Test
+  @DisplayName("Given 16 concurrent checkouts, when group-committed, then create every order")
+  void givenConcurrentCheckouts_whenGroupCommitted_thenCreateEveryOrder() throws Exception {
+    // Arrange
+    List<Future<OrderResponse>> checkouts = submitConcurrently(0);
+
+    // Act
+    List<OrderResponse> responses = new ArrayList<>();
+    for (Future<OrderResponse> checkout : checkouts) {
+      responses.add(checkout.get(60, TimeUnit.SECONDS));
+    }
+
+    // Assert
+    assertEquals(BUYERS, responses.size());
+    responses.forEach(response -> assertEquals(new BigDecimal("25.00"), response.getFinalPrice()));
+    assertEquals(BUYERS, orderRepository.count());
+    assertEquals(100 - BUYERS, stock());
+  }
+
+  @Test
+  @DisplayName("Given a failing checkout in a batch, when group-committed, "
+      + "then fail it alone and commit the others")
+  void givenFailingCheckoutInBatch_whenGroupCommitted_thenFailItAloneAndCommitOthers()
+      throws Exception {
+    // Arrange
+    List<Future<OrderResponse>> checkouts = submitConcurrently(1);
+
+    // Act
+    int created = 0;
+    List<Throwable> failures = new ArrayList<>();
+    for (Future<OrderResponse> checkout : checkouts) {
+      try {
+        checkout.get(60, TimeUnit.SECONDS);
+        created++;
+      } catch (ExecutionException e) {
+        failures.add(e.getCause());
+      }
+    }
+
+    // Assert
+    assertEquals(BUYERS, created);
+    assertEquals(1, failures.size());
+    assertInstanceOf(InsufficientStockException.class, failures.get(0));
+    assertEquals(BUYERS, orderRepository.count());
+    assertEquals(100 - BUYERS, stock());
+  }
+
+  @Test
+  @DisplayName("Given several failing checkouts in a batch, when group-committed, "
+      + "then fail each and commit the others")
+  void givenSeveralFailingCheckoutsInBatch_whenGroupCommitted_thenFailEachAndCommitOthers()
+      throws Exception {
+    // Arrange
+    List<Future<OrderResponse>> checkouts = submitConcurrently(4);
+
+    // Act
+    int created = 0;
+    List<Throwable> failures = new ArrayList<>();
+    for (Future<OrderResponse> checkout : checkouts) {
+      try {
+        checkout.get(60, TimeUnit.SECONDS);
+        created++;
+      } catch (ExecutionException e) {
+        failures.add(e.getCause());
+      }
+    }
+
+    // Assert
+    assertEquals(BUYERS, created);
+    assertEquals(4, failures.size());
+    failures.forEach(failure -> assertInstanceOf(InsufficientStockException.class, failure));
+    assertEquals(BUYERS, orderRepository.count());
+    assertEquals(100 - BUYERS, stock());
+  }
+
+  /**
+   * Start {@value #BUYERS} checkouts of one unit, plus the given number of checkouts of more than
+   * the stock, at the same time.
+   */
+  private List<Future<OrderResponse>> submitConcurrently(int failing) {
+    List<CheckoutRequest> requests = new ArrayList<>();
+    for (int i = 0; i < BUYERS; i++) {
+      requests.add(new CheckoutRequest(user.getId(), List.of(product.getId()), null));
+      if (i < failing) {
+        requests.add(new CheckoutRequest(user.getId(), null, null,
+            List.of(new CartLine(product.getId(), 1000))));
+      }
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(requests.size());
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<OrderResponse>> checkouts = new ArrayList<>();
+    for (CheckoutRequest request : requests) {
+      checkouts.add(executor.submit(() -> {
+        start.await();
+        return checkoutService.processCheckout(request, user.getId());
+      }));
+    }
+    start.countDown();
+    executor.shutdown();
+    return checkouts;
+  }
+
+  private int stock() {
+    return productRepository.findById(product.getId()).orElseThrow().getStock();
+  }
+}
@@ -0,0 +1,229 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.digigoods.dto.CartLine;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.IdempotencyKeyReusedException;
+import com.example.digigoods.exception.InvalidIdempotencyKeyException;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.IdempotencyRecordRepository;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Tests for checkouts submitted with an idempotency key. Each checkout commits in its own
+ * transaction, so this class does not roll back and cleans up after itself instead.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CheckoutIdempotencyTest {
+
+  private static final int DUPLICATES = 16;
+
+  @Autowired
+  private CheckoutService checkoutService;
+
+  @Autowired
+  private ProductService productService;
+
+  @Autowired
+  private DiscountService discountService;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private IdempotencyRecordRepository idempotencyRecordRepository;
+
+  @Autowired
+  private CheckoutPipeline checkoutPipeline;
+
+  @Autowired
+  private OrderIdAllocator orderIdAllocator;
+
+  @Autowired
+  private CheckoutCoordinator checkoutCoordinator;
+
+  @Autowired
+  private CheckoutPricing checkoutPricing;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private User user;
+  private Product product;
+  private CheckoutRequest request;
+
+  @BeforeEach
+  void setUp() {
+    user = userRepository.save(new User(null, "idempotentuser", "password"));
+    product = productRepository.save(
+        new Product(null, "Product 1", new BigDecimal("25.00"), 100));
+    request = new CheckoutRequest(user.getId(), List.of(product.getId()), null);
+  }
+
+  @AfterEach
+  void tearDown() {
+    idempotencyRecordRepository.deleteAll();
+    orderRepository.deleteAll();
+    productRepository.deleteAll();
+    userRepository.delete(user);
+  }
+
+  @Test
+  @DisplayName("Given a completed checkout, when retrying with the same key, "
+      + "then replay the response without a second order")
+  void givenCompletedCheckout_whenRetryingWithSameKey_thenReplayWithoutSecondOrder() {
+    // Arrange
+    OrderResponse first = checkoutService.processCheckout(request, user.getId(), "retry-1");
+
+    // Act
+    OrderResponse retry = checkoutService.processCheckout(request, user.getId(), "retry-1");
+
+    // Assert
+    assertEquals(first, retry);
+    assertEquals(1, orderRepository.count());
+    assertEquals(99, stock());
+  }
+
+  @Test
+  @DisplayName("Given 16 concurrent duplicates, when checking out, then create one order")
+  void givenConcurrentDuplicates_whenCheckingOut_thenCreateOneOrder() throws Exception {
+    // Arrange
+    ExecutorService executor = Executors.newFixedThreadPool(DUPLICATES);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<OrderResponse>> duplicates = new ArrayList<>();
+    for (int i = 0; i < DUPLICATES; i++) {
+      duplicates.add(executor.submit(() -> {
+        start.await();
+        return checkoutService.processCheckout(request, user.getId(), "burst-1");
+      }));
+    }
+
+    // Act
+    start.countDown();
+    List<OrderResponse> responses = new ArrayList<>();
+    for (Future<OrderResponse> duplicate : duplicates) {
+      responses.add(duplicate.get(60, TimeUnit.SECONDS));
+    }
+    executor.shutdown();
+
+    // Assert
+    assertEquals(1, responses.stream().distinct().count());
+    assertEquals(1, orderRepository.count());
+    assertEquals(99, stock());
+  }
+
+  @Test
+  @DisplayName("Given a key completed on another node, when retrying, "
+      + "then replay the stored response")
+  void givenKeyCompletedOnAnotherNode_whenRetrying_thenReplayStoredResponse() {
+    // Arrange
+    OrderResponse first = checkoutService.processCheckout(request, user.getId(), "node-1");
+    CheckoutService otherNode = new CheckoutService(productService, discountService,
+        orderRepository, userRepository, idempotencyRecordRepository,
+        new CheckoutReplayCache(Duration.ofMinutes(10), 100), checkoutPipeline, orderIdAllocator,
+        checkoutCoordinator, checkoutPricing, transactionManager);
+
+    // Act
+    OrderResponse retry = otherNode.processCheckout(request, user.getId(), "node-1");
+
+    // Assert
+    assertEquals(first, retry);
+    assertEquals(1, orderRepository.count());
+  }
+
+  @Test
+  @DisplayName("Given a completed checkout, when reusing its key for another cart, "
+      + "then reject it without an order")
+  void givenCompletedCheckout_whenReusingKeyForAnotherCart_thenRejectWithoutOrder() {
+    // Arrange
+    checkoutService.processCheckout(request, user.getId(), "reuse-1");
+    CheckoutRequest otherCart = new CheckoutRequest(user.getId(),
+        List.of(product.getId(), product.getId()), null);
+    CheckoutService otherNode = new CheckoutService(productService, discountService,
+        orderRepository, userRepository, idempotencyRecordRepository,
+        new CheckoutReplayCache(Duration.ofMinutes(10), 100), checkoutPipeline, orderIdAllocator,
+        checkoutCoordinator, checkoutPricing, transactionManager);
+
+    // Act & Assert
+    assertThrows(IdempotencyKeyReusedException.class,
+        () -> checkoutService.processCheckout(otherCart, user.getId(), "reuse-1"));
+    assertThrows(IdempotencyKeyReusedException.class,
+        () -> otherNode.processCheckout(otherCart, user.getId(), "reuse-1"));
+    assertEquals(1, orderRepository.count());
+    assertEquals(99, stock());
+  }
+
+  @Test
+  @DisplayName("Given a completed checkout, when retrying the same cart written differently, "
+      + "then replay the response")
+  void givenCompletedCheckout_whenRetryingSameCartWrittenDifferently_thenReplay() {
+    // Arrange
+    CheckoutRequest twoUnits = new CheckoutRequest(user.getId(),
+        List.of(product.getId(), product.getId()), null);
+    OrderResponse first = checkoutService.processCheckout(twoUnits, user.getId(), "retry-2");
+    CheckoutRequest asLine = new CheckoutRequest(user.getId(), null, null,
+        List.of(new CartLine(product.getId(), 2)));
+
+    // Act
+    OrderResponse retry = checkoutService.processCheckout(asLine, user.getId(), "retry-2");
+
+    // Assert
+    assertEquals(first, retry);
+    assertEquals(1, orderRepository.count());
+  }
+
+  @Test
+  @DisplayName("Given different keys, when checking out, then create an order per key")
+  void givenDifferentKeys_whenCheckingOut_thenCreateOrderPerKey() {
+    // Act
+    checkoutService.processCheckout(request, user.getId(), "key-a");
+    checkoutService.processCheckout(request, user.getId(), "key-b");
+
+    // Assert
+    assertEquals(2, orderRepository.count());
+    assertEquals(98, stock());
+  }
+
+  @Test
+  @DisplayName("Given a blank key, when checking out, then throw InvalidIdempotencyKeyException")
+  void givenBlankKey_whenCheckingOut_thenThrowInvalidIdempotencyKeyException() {
+    // Act & Assert
+    assertThrows(InvalidIdempotencyKeyException.class,
+        () -> checkoutService.processCheckout(request, user.getId(), " "));
+    assertEquals(0, orderRepository.count());
+  }
+
+  private int stock() {
+    return productRepository.findById(product.getId()).orElseThrow().getStock();
+  }
+}
@@ -0,0 +1,191 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderStatusResponse;
+import com.example.digigoods.exception.OrderNotFoundException;
+import com.example.digigoods.exception.ServiceUnavailableException;
+import com.example.digigoods.model.OrderItem;
+import com.example.digigoods.model.OrderStatus;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.OrderRecord;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests for checkouts written by the checkout pipeline. Orders are written by worker threads, so
+ * this class does not roll back and cleans up after itself instead.
+ */
+@SpringBootTest(properties = {"checkout.async.enabled=true", "checkout.async.capacity=4"})
+@ActiveProfiles("test")
+class CheckoutPipelineTest {
+
+  private static final int CAPACITY = 4;
+  private static final long UNKNOWN_USER_ID = 999_999L;
+
+  @Autowired
+  private CheckoutService checkoutService;
+
+  @Autowired
+  private CheckoutPipeline checkoutPipeline;
+
+  @Autowired
+  private ProductService productService;
+
+  @Autowired
+  private OrderIdAllocator orderIdAllocator;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private User user;
+  private Product product;
+  private CheckoutRequest request;
+
+  @BeforeEach
+  void setUp() {
+    user = userRepository.save(new User(null, "pipelineuser", "password"));
+    product = productRepository.save(
+        new Product(null, "Product 1", new BigDecimal("25.00"), 10));
+    request = new CheckoutRequest(user.getId(), List.of(product.getId()), null);
+  }
+
+  @AfterEach
+  void tearDown() {
+    orderRepository.deleteAll();
+    productRepository.deleteAll();
+    userRepository.delete(user);
+  }
+
+  @Test
+  @DisplayName("Given an async checkout, when the pipeline writes it, then report it as created")
+  void givenAsyncCheckout_whenPipelineWritesIt_thenReportCreated() throws Exception {
+    // Act
+    OrderStatusResponse submitted = checkoutService.submitCheckout(request, user.getId());
+    OrderStatusResponse written = awaitStatus(submitted.getOrderId(), OrderStatus.CREATED);
+
+    // Assert
+    assertEquals(OrderStatus.PENDING, submitted.getStatus());
+    assertEquals(new BigDecimal("25.00"), written.getFinalPrice());
+    assertEquals(9, stock());
+    assertEquals(List.of(new OrderItem(product.getId(), 1, new BigDecimal("25.00"),
+        new BigDecimal("25.00"))), new TransactionTemplate(transactionManager).execute(
+            status -> List.copyOf(orderRepository.findById(submitted.getOrderId())
+                .orElseThrow().getItems())));
+  }
+
+  @Test
+  @DisplayName("Given an order of another user, when getting its status, "
+      + "then throw OrderNotFoundException")
+  void givenOrderOfAnotherUser_whenGettingStatus_thenThrowOrderNotFoundException()
+      throws Exception {
+    // Arrange
+    OrderStatusResponse submitted = checkoutService.submitCheckout(request, user.getId());
+
+    // Act & Assert
+    assertThrows(OrderNotFoundException.class,
+        () -> checkoutService.getOrderStatus(submitted.getOrderId(), user.getId() + 1));
+    awaitStatus(submitted.getOrderId(), OrderStatus.CREATED);
+  }
+
+  @Test
+  @DisplayName("Given a full pipeline, when checking out, "
+      + "then throw ServiceUnavailableException without taking stock")
+  void givenFullPipeline_whenCheckingOut_thenThrowServiceUnavailableWithoutTakingStock() {
+    // Arrange
+    for (int i = 0; i < CAPACITY; i++) {
+      checkoutPipeline.acquireSlot();
+    }
+
+    // Act & Assert
+    try {
+      assertThrows(ServiceUnavailableException.class,
+          () -> checkoutService.submitCheckout(request, user.getId()));
+      assertEquals(10, stock());
+    } finally {
+      for (int i = 0; i < CAPACITY; i++) {
+        checkoutPipeline.releaseSlot();
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Given an order that cannot be written, when the pipeline fails it, "
+      + "then give back its stock and report it as failed")
+  void givenOrderThatCannotBeWritten_whenPipelineFailsIt_thenGiveBackStockAndReportFailed()
+      throws Exception {
+    // Arrange
+    Cart cart = Cart.ofProductIds(List.of(product.getId()));
+    productService.updateStock(cart, List.of(product));
+    long orderId = orderIdAllocator.nextId();
+    OrderRecord order = new OrderRecord(orderId, UNKNOWN_USER_ID, product.getPrice(),
+        product.getPrice(), LocalDateTime.now(),
+        List.of(new OrderItem(product.getId(), 1, product.getPrice(), product.getPrice())),
+        new long[0]);
+    checkoutPipeline.acquireSlot();
+
+    // Act
+    checkoutPipeline.submit(new PendingOrder(order, cart, List.of()));
+    OrderStatusResponse failed = awaitFailed(orderId);
+
+    // Assert
+    assertEquals(OrderStatus.FAILED, failed.getStatus());
+    assertEquals(10, stock());
+    assertEquals(0, orderRepository.count());
+  }
+
+  private OrderStatusResponse awaitStatus(Long orderId, OrderStatus expected)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    OrderStatusResponse status = checkoutService.getOrderStatus(orderId, user.getId());
+    while (status.getStatus() != expected && System.nanoTime() < deadline) {
+      Thread.sleep(20);
+      status = checkoutService.getOrderStatus(orderId, user.getId());
+    }
+    assertEquals(expected, status.getStatus());
+    return status;
+  }
+
+  private OrderStatusResponse awaitFailed(long orderId) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (System.nanoTime() < deadline) {
+      OrderStatusResponse status = checkoutPipeline.getStatus(orderId, UNKNOWN_USER_ID)
+          .orElseThrow();
+      if (status.getStatus() != OrderStatus.PENDING) {
+        return status;
+      }
+      Thread.sleep(20);
+    }
+    throw new AssertionError("Order " + orderId + " is still pending");
+  }
+
+  private int stock() {
+    return productRepository.findById(product.getId()).orElseThrow().getStock();
+  }
+}
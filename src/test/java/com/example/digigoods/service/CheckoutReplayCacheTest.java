@@ -0,0 +1,91 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.IdempotencyKeyReusedException;
+import com.example.digigoods.exception.InsufficientStockException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CheckoutReplayCacheTest {
+
+  private final CheckoutReplayCache checkoutReplayCache =
+      new CheckoutReplayCache(Duration.ofMinutes(10), 100);
+
+  @Test
+  @DisplayName("Given a completed checkout, when executing the same key, then run it only once")
+  void givenCompletedCheckout_whenExecutingSameKey_thenRunOnlyOnce() {
+    // Arrange
+    AtomicInteger runs = new AtomicInteger();
+    OrderResponse response = new OrderResponse("Order created successfully!", BigDecimal.TEN);
+
+    // Act
+    checkoutReplayCache.execute(1L, "key", "hash", () -> {
+      runs.incrementAndGet();
+      return response;
+    });
+    OrderResponse replayed = checkoutReplayCache.execute(1L, "key", "hash", () -> {
+      runs.incrementAndGet();
+      return response;
+    });
+
+    // Assert
+    assertEquals(response, replayed);
+    assertEquals(1, runs.get());
+  }
+
+  @Test
+  @DisplayName("Given a failed checkout, when executing the same key, then run it again")
+  void givenFailedCheckout_whenExecutingSameKey_thenRunAgain() {
+    // Arrange
+    assertThrows(InsufficientStockException.class, () -> checkoutReplayCache.execute(1L, "key",
+        "hash", () -> {
+          throw new InsufficientStockException("sold out");
+        }));
+    OrderResponse response = new OrderResponse("Order created successfully!", BigDecimal.TEN);
+
+    // Act
+    OrderResponse retried = checkoutReplayCache.execute(1L, "key", "hash", () -> response);
+
+    // Assert
+    assertEquals(response, retried);
+  }
+
+  @Test
+  @DisplayName("Given the same key of two users, when executing, then run a checkout for each")
+  void givenSameKeyOfTwoUsers_whenExecuting_thenRunCheckoutForEach() {
+    // Act
+    OrderResponse first = checkoutReplayCache.execute(1L, "key", "hash",
+        () -> new OrderResponse("first", BigDecimal.ONE));
+    OrderResponse second = checkoutReplayCache.execute(2L, "key", "hash",
+        () -> new OrderResponse("second", BigDecimal.TEN));
+
+    // Assert
+    assertEquals("first", first.getMessage());
+    assertEquals("second", second.getMessage());
+  }
+
+  @Test
+  @DisplayName("Given a known key, when executing it with another request, then reject it")
+  void givenKnownKey_whenExecutingWithAnotherRequest_thenReject() {
+    // Arrange
+    AtomicInteger runs = new AtomicInteger();
+    checkoutReplayCache.execute(1L, "key", "hash", () -> {
+      runs.incrementAndGet();
+      return new OrderResponse("Order created successfully!", BigDecimal.TEN);
+    });
+
+    // Act & Assert
+    assertThrows(IdempotencyKeyReusedException.class,
+        () -> checkoutReplayCache.execute(1L, "key", "other-hash", () -> {
+          runs.incrementAndGet();
+          return new OrderResponse("Order created successfully!", BigDecimal.ONE);
+        }));
+    assertEquals(1, runs.get());
+  }
+}
@@ -0,0 +1,343 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.dto.CartLine;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.dto.QuoteDiscount;
+import com.example.digigoods.dto.QuoteLine;
+import com.example.digigoods.dto.QuoteRequest;
+import com.example.digigoods.dto.QuoteResponse;
+import com.example.digigoods.exception.InvalidDiscountException;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.OrderItem;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.DiscountRepository;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Counts the SQL statements sent to the database by one checkout. Each checkout commits, so this
+ * class does not roll back and cleans up after itself instead.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(CheckoutStatementCountTest.StatementLogConfiguration.class)
+class CheckoutStatementCountTest {
+
+  @Autowired
+  private CheckoutService checkoutService;
+
+  @Autowired
+  private StatementLog statementLog;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private DiscountRepository discountRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private DiscountRegistry discountRegistry;
+
+  @Autowired
+  private ProductCatalogService productCatalogService;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private User user;
+  private Product product1;
+  private Product product2;
+
+  @BeforeEach
+  void setUp() {
+    user = userRepository.save(new User(null, "checkoutuser", "password"));
+    product1 = productRepository.save(
+        new Product(null, "Product 1", new BigDecimal("100.00"), 10));
+    product2 = productRepository.save(
+        new Product(null, "Product 2", new BigDecimal("50.00"), 10));
+
+    LocalDate today = LocalDate.now();
+    discountRepository.save(new Discount(null, "PRODUCT10", new BigDecimal("10.00"),
+        DiscountType.PRODUCT_SPECIFIC, today.minusDays(1), today.plusDays(1), 5,
+        Set.of(product1)));
+    discountRepository.save(new Discount(null, "GENERAL5", new BigDecimal("5.00"),
+        DiscountType.GENERAL, today.minusDays(1), today.plusDays(1), 5, Set.of()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    orderRepository.deleteAll();
+    discountRepository.deleteAll();
+    productRepository.deleteAll();
+    userRepository.delete(user);
+  }
+
+  @Test
+  @DisplayName("Given a cart with discounts, when checking out, "
+      + "then issue a fixed set of statements")
+  void givenCartWithDiscounts_whenCheckingOut_thenIssueFixedSetOfStatements() {
+    // Arrange
+    final CheckoutRequest request = new CheckoutRequest(user.getId(),
+        List.of(product1.getId(), product1.getId(), product2.getId()),
+        List.of("PRODUCT10", "GENERAL5"));
+    // Codes are validated in memory once the registry has loaded the new discounts
+    discountRegistry.getActive("PRODUCT10");
+    // Order IDs are taken from orders_seq a block at a time, so only the first order selects it
+    checkoutService.processCheckout(
+        new CheckoutRequest(user.getId(), List.of(product2.getId()), null), user.getId());
+    statementLog.clear();
+
+    // Act
+    OrderResponse response = checkoutService.processCheckout(request, user.getId());
+
+    // Assert
+    List<String> statements = statementLog.statements();
+    // (90 + 90 + 50) - 5% = 218.50
+    assertEquals(new BigDecimal("218.50"), response.getFinalPrice());
+    assertEquals(List.of(
+        "select products",
+        "batch update products",
+        "batch update discounts",
+        "batch insert orders",
+        "batch insert order_applied_discounts",
+        "batch insert order_items",
+        "batch insert order_products"), summarize(statements), String.join("\n", statements));
+    assertTrue(statements.stream().noneMatch(sql -> sql.contains("users")),
+        "the user must not be loaded");
+  }
+
+  @Test
+  @DisplayName("Given a cart of quantity lines, when checking out, "
+      + "then price it like repeated product IDs")
+  void givenCartOfQuantityLines_whenCheckingOut_thenPriceItLikeRepeatedProductIds() {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(), null,
+        List.of("PRODUCT10", "GENERAL5"),
+        List.of(new CartLine(product2.getId(), 1), new CartLine(product1.getId(), 2)));
+
+    // Act
+    OrderResponse response = checkoutService.processCheckout(request, user.getId());
+
+    // Assert
+    assertEquals(new BigDecimal("218.50"), response.getFinalPrice());
+    assertEquals(8, productRepository.findById(product1.getId()).orElseThrow().getStock());
+    // One row per line, with the catalog price and the price after product-specific discounts
+    List<OrderItem> items = new TransactionTemplate(transactionManager).execute(status ->
+        List.copyOf(orderRepository.findAll().get(0).getItems()));
+    assertEquals(List.of(
+        new OrderItem(product1.getId(), 2, new BigDecimal("100.00"), new BigDecimal("180.00")),
+        new OrderItem(product2.getId(), 1, new BigDecimal("50.00"), new BigDecimal("50.00"))),
+        items.stream().sorted(Comparator.comparing(OrderItem::getProductId)).toList());
+  }
+
+  @Test
+  @DisplayName("Given an unknown discount code, when checking out, "
+      + "then reject it without taking a connection")
+  void givenUnknownDiscountCode_whenCheckingOut_thenRejectWithoutTakingConnection() {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(),
+        List.of(product1.getId()), List.of("GENERAL5", "BOGUS42"));
+    discountRegistry.getActive("GENERAL5");
+    statementLog.clear();
+
+    // Act & Assert
+    assertThrows(InvalidDiscountException.class,
+        () -> checkoutService.processCheckout(request, user.getId()));
+    assertEquals(0, statementLog.connections());
+    assertEquals(List.of(), statementLog.statements());
+  }
+
+  @Test
+  @DisplayName("Given warm catalog and discount caches, when quoting, "
+      + "then price the cart like a checkout without taking a connection")
+  void givenWarmCaches_whenQuoting_thenPriceWithoutTakingConnection() {
+    // Arrange
+    final QuoteRequest request = new QuoteRequest(null, List.of("PRODUCT10", "GENERAL5"),
+        List.of(new CartLine(product1.getId(), 2), new CartLine(product2.getId(), 1)));
+    discountRegistry.getActive("PRODUCT10");
+    productCatalogService.getSnapshot();
+    statementLog.clear();
+
+    // Act
+    QuoteResponse quote = checkoutService.quote(request);
+
+    // Assert
+    assertEquals(0, statementLog.connections());
+    assertEquals(List.of(
+        new QuoteLine(product1.getId(), 2, new BigDecimal("100.00"), new BigDecimal("180.00")),
+        new QuoteLine(product2.getId(), 1, new BigDecimal("50.00"), new BigDecimal("50.00"))),
+        quote.getLines());
+    assertEquals(List.of(
+        new QuoteDiscount("PRODUCT10", DiscountType.PRODUCT_SPECIFIC, new BigDecimal("10.00"),
+            new BigDecimal("20.00")),
+        new QuoteDiscount("GENERAL5", DiscountType.GENERAL, new BigDecimal("5.00"),
+            new BigDecimal("11.50"))),
+        quote.getDiscounts());
+    assertEquals(new BigDecimal("250.00"), quote.getOriginalSubtotal());
+    // The same cart checked out costs 218.50
+    assertEquals(new BigDecimal("218.50"), quote.getFinalPrice());
+    assertEquals(10, productRepository.findById(product1.getId()).orElseThrow().getStock());
+  }
+
+  /**
+   * Reduce each statement to its kind and the first table it touches.
+   */
+  private static List<String> summarize(List<String> statements) {
+    return statements.stream()
+        .map(sql -> {
+          String[] words = sql.toLowerCase(Locale.ROOT).replaceAll("[(),]", " ").trim()
+              .split("\\s+");
+          String kind = words[0].equals("batch") ? "batch " + words[1] : words[0];
+          String table = "";
+          for (int i = 1; i < words.length - 1; i++) {
+            if (words[i].equals("from") || words[i].equals("into") || words[i].equals("update")) {
+              table = words[i + 1];
+              break;
+            }
+          }
+          return kind + " " + table;
+        })
+        .toList();
+  }
+
+  /**
+   * Log of the connections taken from and the statements executed through the application data
+   * source. A JDBC batch is logged once, as it is sent in one round trip.
+   */
+  static class StatementLog {
+
+    private final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger connections = new AtomicInteger();
+
+    List<String> statements() {
+      synchronized (statements) {
+        return List.copyOf(statements);
+      }
+    }
+
+    int connections() {
+      return connections.get();
+    }
+
+    void clear() {
+      statements.clear();
+      connections.set(0);
+    }
+
+    DataSource wrap(DataSource dataSource) {
+      return proxy(DataSource.class, dataSource, (method, result, args) -> {
+        if (result instanceof Connection connection) {
+          connections.incrementAndGet();
+          return wrap(connection);
+        }
+        return result;
+      });
+    }
+
+    private Connection wrap(Connection connection) {
+      return proxy(Connection.class, connection, (method, result, args) -> {
+        if (result instanceof PreparedStatement statement) {
+          return wrap(PreparedStatement.class, statement, (String) args[0]);
+        }
+        if (result instanceof Statement statement) {
+          return wrap(Statement.class, statement, null);
+        }
+        return result;
+      });
+    }
+
+    private <T extends Statement> T wrap(Class<T> type, T statement, String preparedSql) {
+      return proxy(type, statement, (method, result, args) -> {
+        if (method.equals("executeBatch")) {
+          statements.add("batch " + preparedSql);
+        } else if (method.startsWith("execute")) {
+          statements.add(args != null && args.length > 0 && args[0] instanceof String sql
+              ? sql : preparedSql);
+        }
+        return result;
+      });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, ResultWrapper wrapper) {
+      InvocationHandler handler = (proxy, method, args) -> {
+        Object result;
+        try {
+          result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+          throw e.getCause();
+        }
+        return wrapper.wrap(method.getName(), result, args);
+      };
+      return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    @FunctionalInterface
+    private interface ResultWrapper {
+
+      Object wrap(String method, Object result, Object[] args) throws Exception;
+    }
+  }
+
+  @TestConfiguration
+  static class StatementLogConfiguration {
+
+    @Bean
+    static StatementLog statementLog() {
+      return new StatementLog();
+    }
+
+    @Bean
+    static BeanPostProcessor statementLogDataSourceWrapper(StatementLog statementLog) {
+      return new BeanPostProcessor() {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+          return bean instanceof DataSource dataSource ? statementLog.wrap(dataSource) : bean;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.exception.InvalidDiscountException;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.repository.DiscountRepository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Contention tests for discount redemption. Each redemption commits in its own transaction, so
+ * this class does not roll back and cleans up after itself instead.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DiscountRedemptionContentionTest {
+
+  private static final int BUYERS = 64;
+  private static final int INITIAL_USES = 2000;
+
+  @Autowired
+  private DiscountService discountService;
+
+  @Autowired
+  private DiscountRepository discountRepository;
+
+  @Autowired
+  private DiscountRegistry discountRegistry;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private TransactionTemplate transactionTemplate;
+  private Discount hotDiscount;
+  private DiscountDefinition hotDefinition;
+
+  @BeforeEach
+  void setUp() {
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    hotDiscount = discountRepository.save(new Discount(null, "FLASHSALE", new BigDecimal("10.00"),
+        DiscountType.GENERAL, LocalDate.now().minusDays(1), LocalDate.now().plusDays(1),
+        INITIAL_USES, new HashSet<>()));
+    hotDefinition = DiscountDefinition.of(hotDiscount);
+  }
+
+  @AfterEach
+  void tearDown() {
+    discountRepository.deleteById(hotDiscount.getId());
+  }
+
+  @Test
+  @DisplayName("Given 64 concurrent buyers of one code, when redeeming directly until used up, "
+      + "then redeem exactly the uses")
+  void givenConcurrentBuyersOfOneCode_whenRedeemingDirectly_thenRedeemExactlyTheUses(
+      TestReporter testReporter) throws Exception {
+    // Act
+    long startedAt = System.nanoTime();
+    int redeemed = redeemConcurrently(discountService);
+    final long elapsedNanos = System.nanoTime() - startedAt;
+
+    // Assert
+    assertEquals(INITIAL_USES, redeemed);
+    assertEquals(0, remainingUses());
+    testReporter.publishEntry("directRedemptionsPerSecond",
+        String.valueOf(redeemed * 1_000_000_000L / Math.max(elapsedNanos, 1)));
+  }
+
+  @Test
+  @DisplayName("Given 64 concurrent buyers of one code, when redeeming from reserved blocks, "
+      + "then never redeem more than the uses")
+  void givenConcurrentBuyersOfOneCode_whenRedeemingFromBlocks_thenNeverRedeemMoreThanUses(
+      TestReporter testReporter) throws Exception {
+    // Arrange
+    DiscountUseAllocator allocator = new DiscountUseAllocator(discountRepository,
+        transactionManager, 50);
+    DiscountService blockDiscountService = new DiscountService(discountRepository, allocator,
+        discountRegistry);
+
+    // Act
+    long startedAt = System.nanoTime();
+    int redeemed = redeemConcurrently(blockDiscountService);
+    final long elapsedNanos = System.nanoTime() - startedAt;
+    allocator.close();
+
+    // Assert
+    assertTrue(redeemed <= INITIAL_USES);
+    assertEquals(INITIAL_USES, redeemed + remainingUses());
+    testReporter.publishEntry("blockRedemptionsPerSecond",
+        String.valueOf(redeemed * 1_000_000_000L / Math.max(elapsedNanos, 1)));
+  }
+
+  private int redeemConcurrently(DiscountService service) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Integer>> buyers = new ArrayList<>();
+    for (int i = 0; i < BUYERS; i++) {
+      buyers.add(executor.submit(() -> {
+        start.await();
+        int redeemed = 0;
+        while (true) {
+          try {
+            transactionTemplate.executeWithoutResult(
+                status -> service.updateDiscountUsage(List.of(hotDefinition)));
+            redeemed++;
+          } catch (InvalidDiscountException e) {
+            return redeemed;
+          }
+        }
+      }));
+    }
+
+    start.countDown();
+    int redeemed = 0;
+    for (Future<Integer> buyer : buyers) {
+      redeemed += buyer.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    return redeemed;
+  }
+
+  private int remainingUses() {
+    return discountRepository.findById(hotDiscount.getId()).orElseThrow().getRemainingUses();
+  }
+}
@@ -0,0 +1,163 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.exception.InvalidDiscountException;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.repository.DiscountProductLink;
+import com.example.digigoods.repository.DiscountRepository;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DiscountRegistryTest {
+
+  private static final Instant NOW = Instant.parse("2025-01-10T12:00:00Z");
+  private static final LocalDate TODAY = LocalDate.of(2025, 1, 10);
+
+  @Mock
+  private DiscountRepository discountRepository;
+
+  @Mock
+  private Clock clock;
+
+  private DiscountRegistry discountRegistry;
+
+  @BeforeEach
+  void setUp() {
+    when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+    when(clock.instant()).thenReturn(NOW);
+    when(discountRepository.findAllProductLinks()).thenReturn(List.of(
+        new DiscountProductLink(1L, 12L), new DiscountProductLink(1L, 11L)));
+    when(discountRepository.findAll()).thenReturn(List.of(
+        discount(1L, "ACTIVE", TODAY.minusDays(1), TODAY),
+        discount(2L, "UPCOMING", TODAY.plusDays(2), TODAY.plusDays(5)),
+        discount(3L, "EXPIRED", TODAY.minusDays(5), TODAY.minusDays(1))));
+    discountRegistry = new DiscountRegistry(discountRepository, Duration.ofDays(7), clock);
+  }
+
+  @AfterEach
+  void tearDown() {
+    discountRegistry.close();
+  }
+
+  @Test
+  @DisplayName("Given a loaded registry, when looking up active codes, then query only once")
+  void givenLoadedRegistry_whenLookingUpActiveCodes_thenQueryOnlyOnce() {
+    // Act
+    DiscountDefinition first = discountRegistry.getActive("ACTIVE");
+    DiscountDefinition second = discountRegistry.getActive("ACTIVE");
+
+    // Assert
+    assertEquals(first, second);
+    assertEquals(new BigDecimal("10.00"), first.percentage());
+    assertArrayEquals(new long[] {11L, 12L}, first.applicableProductIds());
+    verify(discountRepository, times(1)).findAll();
+  }
+
+  @Test
+  @DisplayName("Given unknown, upcoming and expired codes, when looking them up, then reject each")
+  void givenInvalidCodes_whenLookingUp_thenRejectEach() {
+    // Act & Assert
+    assertEquals("Invalid discount code 'UNKNOWN': discount code not found",
+        assertThrows(InvalidDiscountException.class,
+            () -> discountRegistry.getActive("UNKNOWN")).getMessage());
+    assertEquals("Invalid discount code 'UPCOMING': discount is not yet valid",
+        assertThrows(InvalidDiscountException.class,
+            () -> discountRegistry.getActive("UPCOMING")).getMessage());
+    assertEquals("Invalid discount code 'EXPIRED': discount has expired",
+        assertThrows(InvalidDiscountException.class,
+            () -> discountRegistry.getActive("EXPIRED")).getMessage());
+  }
+
+  @Test
+  @DisplayName("Given a code that ends today, when the day passes, then flip it to expired")
+  void givenCodeEndingToday_whenDayPasses_thenFlipToExpired() {
+    // Arrange
+    discountRegistry.getActive("ACTIVE");
+    assertEquals(Instant.parse("2025-01-11T00:00:00Z"), discountRegistry.nextFlipAt());
+
+    // Act
+    when(clock.instant()).thenReturn(Instant.parse("2025-01-11T00:00:00Z"));
+    discountRegistry.flip();
+
+    // Assert
+    assertThrows(InvalidDiscountException.class, () -> discountRegistry.getActive("ACTIVE"));
+    assertEquals(Instant.parse("2025-01-12T00:00:00Z"), discountRegistry.nextFlipAt());
+    verify(discountRepository, times(1)).findAll();
+  }
+
+  @Test
+  @DisplayName("Given a loaded registry, when invalidated, then reload on the next lookup")
+  void givenLoadedRegistry_whenInvalidated_thenReloadOnNextLookup() {
+    // Arrange
+    discountRegistry.getActive("ACTIVE");
+
+    // Act
+    discountRegistry.invalidate();
+    discountRegistry.getActive("ACTIVE");
+
+    // Assert
+    verify(discountRepository, times(2)).findAll();
+  }
+
+  @Test
+  @DisplayName("Given a reload in progress, when looking up a code, "
+      + "then use the previous registry without waiting")
+  void givenReloadInProgress_whenLookingUp_thenUsePreviousRegistryWithoutWaiting()
+      throws Exception {
+    // Arrange
+    discountRegistry.getActive("ACTIVE");
+    CountDownLatch reloading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(discountRepository.findAll()).thenAnswer(invocation -> {
+      reloading.countDown();
+      release.await(10, TimeUnit.SECONDS);
+      return List.of(discount(1L, "ACTIVE", TODAY.minusDays(1), TODAY));
+    });
+    discountRegistry.invalidate();
+    final CompletableFuture<DiscountDefinition> reload =
+        CompletableFuture.supplyAsync(() -> discountRegistry.getActive("ACTIVE"));
+    assertTrue(reloading.await(10, TimeUnit.SECONDS));
+
+    // Act
+    DiscountDefinition definition = assertTimeoutPreemptively(Duration.ofSeconds(5),
+        () -> discountRegistry.getActive("ACTIVE"));
+
+    // Assert
+    assertEquals("ACTIVE", definition.code());
+    release.countDown();
+    assertEquals("ACTIVE", reload.get(10, TimeUnit.SECONDS).code());
+    verify(discountRepository, times(2)).findAll();
+  }
+
+  private static Discount discount(Long id, String code, LocalDate validFrom,
+                                   LocalDate validUntil) {
+    return new Discount(id, code, new BigDecimal("10.00"), DiscountType.PRODUCT_SPECIFIC,
+        validFrom, validUntil, 5, new HashSet<>());
+  }
+}
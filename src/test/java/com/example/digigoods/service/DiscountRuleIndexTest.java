@@ -0,0 +1,57 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.Product;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class DiscountRuleIndexTest {
+
+  private final Product product1 = new Product(1L, "Product 1", new BigDecimal("10.00"), 5);
+  private final Product product2 = new Product(2L, "Product 2", new BigDecimal("33.33"), 5);
+  private final Product product3 = new Product(3L, "Product 3", new BigDecimal("20.00"), 5);
+
+  @Test
+  @DisplayName("Given overlapping discounts, when compiling, then add up percentages per product")
+  void givenOverlappingDiscounts_whenCompiling_thenAddUpPercentagesPerProduct() {
+    // Arrange
+    List<DiscountDefinition> discounts = List.of(
+        discount("TEN", "10.00", product1, product2),
+        discount("FIVE", "5.00", product2));
+
+    // Act
+    DiscountRuleIndex index = DiscountRuleIndex.compile(discounts, new long[] {1L, 2L, 3L});
+
+    // Assert
+    assertEquals(new BigDecimal("10.00"), index.percentageFor(1L));
+    assertEquals(new BigDecimal("15.00"), index.percentageFor(2L));
+    assertEquals(BigDecimal.ZERO, index.percentageFor(3L));
+    assertEquals(BigDecimal.ZERO, index.percentageFor(4L));
+  }
+
+  @Test
+  @DisplayName("Given a discounted product, when pricing, then round the discount half up")
+  void givenDiscountedProduct_whenPricing_thenRoundDiscountHalfUp() {
+    // Arrange
+    DiscountRuleIndex index = DiscountRuleIndex.compile(
+        List.of(discount("FIFTEEN", "15.00", product2)), new long[] {2L, 3L});
+
+    // Act & Assert
+    // 33.33 * 15% = 4.9995, rounded to 5.00
+    assertEquals(new BigDecimal("28.33"), index.discountedPrice(2L, product2.getPrice()));
+    assertEquals(new BigDecimal("20.00"), index.discountedPrice(3L, product3.getPrice()));
+  }
+
+  private static DiscountDefinition discount(String code, String percentage,
+                                             Product... products) {
+    return DiscountDefinition.of(new Discount(null, code, new BigDecimal(percentage),
+        DiscountType.PRODUCT_SPECIFIC, LocalDate.now(), LocalDate.now(), 1, Set.of(products)));
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.repository.DiscountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class DiscountUseAllocatorTest {
+
+  @Mock
+  private DiscountRepository discountRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private DiscountUseAllocator allocator;
+
+  @BeforeEach
+  void setUp() {
+    allocator = new DiscountUseAllocator(discountRepository, transactionManager, 8);
+  }
+
+  @Test
+  @DisplayName("Given sold-out code, when taking uses, then stop reserving until it changes")
+  void givenSoldOutCode_whenTakingUses_thenStopReservingUntilItChanges() throws Exception {
+    // Arrange
+    when(discountRepository.reserve("SOLDOUT", 8)).thenReturn(0);
+    assertFalse(allocator.tryTake("SOLDOUT"));
+    verify(discountRepository, timeout(5000)).reserve("SOLDOUT", 8);
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!allocator.isExhausted("SOLDOUT") && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(allocator.isExhausted("SOLDOUT"));
+
+    // Act
+    for (int i = 0; i < 100; i++) {
+      assertFalse(allocator.tryTake("SOLDOUT"));
+    }
+    allocator.discountChanged("SOLDOUT");
+    assertFalse(allocator.tryTake("SOLDOUT"));
+    allocator.close();
+
+    // Assert
+    verify(discountRepository, times(2)).reserve("SOLDOUT", 8);
+  }
+}
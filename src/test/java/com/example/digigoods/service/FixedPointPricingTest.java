@@ -0,0 +1,156 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.dto.CartLine;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.Product;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that fixed-point pricing gives the same results as decimal pricing, on random carts
+ * generated from a fixed seed so that a failure can be replayed.
+ */
+class FixedPointPricingTest {
+
+  private static final int CARTS = 1_000_000;
+  private static final LocalDate TODAY = LocalDate.of(2025, 1, 10);
+
+  @Test
+  @DisplayName("Given random carts and discounts, when pricing in fixed point, "
+      + "then give the same result as decimal pricing")
+  void givenRandomCarts_whenPricingInFixedPoint_thenMatchDecimalPricing() {
+    Random random = new Random(20250110L);
+    int fallbacks = 0;
+
+    for (int i = 0; i < CARTS; i++) {
+      // Arrange
+      CheckoutPlan plan = randomPlan(random);
+
+      // Act
+      Object expected = outcome(() -> CheckoutPricing.priceDecimal(plan));
+      Object actual = outcome(() -> FixedPointPricing.price(plan));
+
+      // Assert
+      if (actual == null) {
+        fallbacks++;
+      } else {
+        int cart = i;
+        assertEquals(expected, actual, () -> "cart " + cart + ": " + plan);
+      }
+    }
+    // Only carts with a zero subtotal may fall back, so almost every cart is compared
+    assertTrue(fallbacks < CARTS / 100, fallbacks + " carts fell back to decimal pricing");
+  }
+
+  @Test
+  @DisplayName("Given halves, when dividing half up, then round away from zero")
+  void givenHalves_whenDividingHalfUp_thenRoundAwayFromZero() {
+    for (long dividend = -20_000; dividend <= 20_000; dividend++) {
+      long expected = BigDecimal.valueOf(dividend)
+          .divide(BigDecimal.valueOf(400), 0, RoundingMode.HALF_UP).longValueExact();
+      assertEquals(expected, FixedPointPricing.divideHalfUp(dividend, 400), "" + dividend);
+    }
+  }
+
+  @Test
+  @DisplayName("Given values not exact in cents, when pricing in fixed point, "
+      + "then fall back to decimal pricing")
+  void givenValuesNotExactInCents_whenPricingInFixedPoint_thenFallBack() {
+    // Arrange
+    Cart cart = Cart.ofProductIds(List.of(1L));
+    CheckoutPlan threeDecimalPrice = new CheckoutPlan(cart,
+        List.of(new Product(1L, "Product 1", new BigDecimal("10.005"), 5)), List.of());
+    CheckoutPlan wholePrice = new CheckoutPlan(cart,
+        List.of(new Product(1L, "Product 1", new BigDecimal("10"), 5)), List.of());
+    CheckoutPlan threeDecimalPercentage = new CheckoutPlan(cart,
+        List.of(new Product(1L, "Product 1", new BigDecimal("10.00"), 5)),
+        List.of(discount(1, DiscountType.GENERAL, new BigDecimal("12.345"))));
+
+    // Act & Assert
+    assertNull(FixedPointPricing.price(threeDecimalPrice));
+    assertNull(FixedPointPricing.price(wholePrice));
+    assertNull(FixedPointPricing.price(threeDecimalPercentage));
+    CheckoutPricing fixedPoint = new CheckoutPricing(true);
+    assertEquals(CheckoutPricing.priceDecimal(wholePrice), fixedPoint.price(wholePrice));
+    assertEquals(CheckoutPricing.priceDecimal(threeDecimalPercentage),
+        fixedPoint.price(threeDecimalPercentage));
+  }
+
+  private static CheckoutPlan randomPlan(Random random) {
+    int lineCount = 1 + random.nextInt(random.nextInt(10) == 0 ? 200 : 8);
+    List<CartLine> lines = new ArrayList<>(lineCount);
+    List<Product> products = new ArrayList<>(lineCount);
+    for (int line = 0; line < lineCount; line++) {
+      long productId = line + 1;
+      int quantity = 1 + random.nextInt(random.nextInt(4) == 0 ? 1000 : 3);
+      lines.add(new CartLine(productId, quantity));
+      // Occasional stock shortfalls, and prices ending in 5 to hit rounding ties
+      int stock = random.nextInt(50) == 0 ? quantity - 1 : quantity + random.nextInt(10);
+      long cents = switch (random.nextInt(4)) {
+        case 0 -> random.nextInt(100) * 10 + 5;
+        case 1 -> random.nextInt(100_000);
+        case 2 -> random.nextLong(10_000_000_000L);
+        default -> 1 + random.nextInt(10_000);
+      };
+      products.add(new Product(productId, "Product " + productId,
+          BigDecimal.valueOf(cents, 2), stock));
+    }
+
+    List<DiscountDefinition> discounts = new ArrayList<>();
+    int productSpecificCount = random.nextInt(4);
+    for (int i = 0; i < productSpecificCount; i++) {
+      discounts.add(discount(discounts.size(), DiscountType.PRODUCT_SPECIFIC,
+          randomPercentage(random),
+          LongStream.rangeClosed(1, lineCount + 2).filter(id -> random.nextBoolean()).toArray()));
+    }
+    int generalCount = random.nextInt(3);
+    for (int i = 0; i < generalCount; i++) {
+      discounts.add(discount(discounts.size(), DiscountType.GENERAL, randomPercentage(random)));
+    }
+    // The registry keeps discounts in the order of the requested codes, types mixed
+    Collections.shuffle(discounts, random);
+
+    Cart cart = Cart.of(null, lines);
+    return new CheckoutPlan(cart, products, discounts);
+  }
+
+  private static BigDecimal randomPercentage(Random random) {
+    // Percentages are stored with two decimals, but may be given with fewer
+    return switch (random.nextInt(3)) {
+      case 0 -> BigDecimal.valueOf(1 + random.nextInt(60));
+      case 1 -> BigDecimal.valueOf(1 + random.nextInt(600), 1);
+      default -> BigDecimal.valueOf(1 + random.nextInt(6000), 2);
+    };
+  }
+
+  private static DiscountDefinition discount(int index, DiscountType type, BigDecimal percentage,
+                                             long... productIds) {
+    return new DiscountDefinition((long) index, "CODE" + index, percentage, type,
+        TODAY, TODAY, productIds);
+  }
+
+  /**
+   * Run a pricing and reduce it to something comparable: the priced order, its exception class
+   * and message, or {@code null}.
+   */
+  private static Object outcome(Supplier<PricedOrder> pricing) {
+    try {
+      return pricing.get();
+    } catch (RuntimeException e) {
+      return e.getClass().getName() + ": " + e.getMessage();
+    }
+  }
+}
@@ -3,23 +3,28 @@ package com.example.digigoods.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.example.digigoods.security.JwtKeyring;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.springframework.test.util.ReflectionTestUtils;
 
 class JwtServiceTest {
 
+  private static final String SECRET = "myVerySecretKeyThatIsAtLeast256BitsLongForHS256Algorithm";
+  private static final String OLD_SECRET = "anotherSecretKeyThatIsAtLeast256BitsLongForHS256";
+
   private JwtService jwtService;
 
   @BeforeEach
   void setUp() {
-    jwtService = new JwtService();
-    ReflectionTestUtils.setField(jwtService, "secret",
-        "myVerySecretKeyThatIsAtLeast256BitsLongForHS256Algorithm");
-    ReflectionTestUtils.setField(jwtService, "expiration", 86400000L);
+    jwtService = new JwtService(new JwtKeyring("primary", SECRET, ""), 86400000L, 100);
   }
 
   @Test
@@ -112,4 +117,63 @@ class JwtServiceTest {
     // Assert
     assertFalse(isValid);
   }
+
+  @Test
+  @DisplayName("Given valid token, when extracting claims twice, then return cached claims")
+  void givenValidToken_whenExtractingClaimsTwice_thenReturnCachedClaims() {
+    // Arrange
+    String token = jwtService.generateToken(1L, "testuser");
+
+    // Act
+    Claims first = jwtService.extractClaims(token);
+    Claims second = jwtService.extractClaims(token);
+
+    // Assert
+    assertSame(first, second);
+    assertEquals("testuser", first.getSubject());
+    assertEquals(1L, jwtService.extractUserId(first));
+  }
+
+  @Test
+  @DisplayName("Given expired token, when extracting claims, then throw ExpiredJwtException")
+  void givenExpiredToken_whenExtractingClaims_thenThrowExpiredJwtException() {
+    // Arrange
+    JwtService shortLivedJwtService = new JwtService(
+        new JwtKeyring("primary", SECRET, ""), -1000L, 100);
+    String token = shortLivedJwtService.generateToken(1L, "testuser");
+
+    // Act & Assert
+    assertThrows(ExpiredJwtException.class, () -> shortLivedJwtService.extractClaims(token));
+  }
+
+  @Test
+  @DisplayName("Given token signed with retired key, when parsing after rollover, "
+      + "then return claims")
+  void givenTokenSignedWithRetiredKey_whenParsingAfterRollover_thenReturnClaims() {
+    // Arrange
+    JwtService oldJwtService = new JwtService(
+        new JwtKeyring("v1", OLD_SECRET, ""), 86400000L, 100);
+    JwtService rotatedJwtService = new JwtService(
+        new JwtKeyring("v2", SECRET, "v1:" + OLD_SECRET), 86400000L, 100);
+    String token = oldJwtService.generateToken(1L, "testuser");
+
+    // Act
+    Claims claims = rotatedJwtService.parseClaims(token);
+
+    // Assert
+    assertEquals("testuser", claims.getSubject());
+  }
+
+  @Test
+  @DisplayName("Given token signed with unknown key ID, when parsing, "
+      + "then throw SignatureException")
+  void givenTokenSignedWithUnknownKeyId_whenParsing_thenThrowSignatureException() {
+    // Arrange
+    JwtService otherJwtService = new JwtService(
+        new JwtKeyring("v9", OLD_SECRET, ""), 86400000L, 100);
+    String token = otherJwtService.generateToken(1L, "testuser");
+
+    // Act & Assert
+    assertThrows(SignatureException.class, () -> jwtService.parseClaims(token));
+  }
 }
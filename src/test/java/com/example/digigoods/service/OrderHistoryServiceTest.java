@@ -0,0 +1,74 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.dto.OrderPage;
+import com.example.digigoods.dto.OrderPageRequest;
+import com.example.digigoods.dto.OrderSummary;
+import com.example.digigoods.exception.InvalidCursorException;
+import com.example.digigoods.repository.OrderRepository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+@ExtendWith(MockitoExtension.class)
+class OrderHistoryServiceTest {
+
+  private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+  @Mock
+  private OrderRepository orderRepository;
+
+  @InjectMocks
+  private OrderHistoryService orderHistoryService;
+
+  @Test
+  @DisplayName("Given more orders than the limit, when getting order history, "
+      + "then return a cursor that continues after the last order")
+  void givenMoreOrdersThanLimit_whenGettingOrderHistory_thenReturnNextCursor() {
+    // Arrange
+    OrderSummary newest = summary(3L, NOW);
+    OrderSummary sameTime = summary(4L, NOW);
+    OrderSummary oldest = summary(1L, NOW.minusDays(1));
+    when(orderRepository.findHistory(7L, Limit.of(3)))
+        .thenReturn(List.of(newest, sameTime, oldest));
+    when(orderRepository.findHistoryAfter(7L, NOW, 4L, Limit.of(3)))
+        .thenReturn(List.of(oldest));
+
+    // Act
+    OrderPage first = orderHistoryService.getOrderHistory(7L, new OrderPageRequest(null, 2));
+    OrderPage second = orderHistoryService.getOrderHistory(7L,
+        new OrderPageRequest(first.getNextCursor(), 2));
+
+    // Assert
+    assertEquals(List.of(newest, sameTime), first.getItems());
+    assertEquals(List.of(oldest), second.getItems());
+    assertNull(second.getNextCursor());
+  }
+
+  @Test
+  @DisplayName("Given malformed cursor, when getting order history, "
+      + "then throw InvalidCursorException")
+  void givenMalformedCursor_whenGettingOrderHistory_thenThrowInvalidCursorException() {
+    // Arrange
+    OrderPageRequest request = new OrderPageRequest("not-a-cursor", 10);
+
+    // Act & Assert
+    assertThrows(InvalidCursorException.class,
+        () -> orderHistoryService.getOrderHistory(7L, request));
+  }
+
+  private static OrderSummary summary(Long id, LocalDateTime orderDate) {
+    return new OrderSummary(id, orderDate, new BigDecimal("10.00"), new BigDecimal("9.00"));
+  }
+}
@@ -0,0 +1,125 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.service.ProductCatalogService.CatalogSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCatalogServiceTest {
+
+  @Mock
+  private ProductRepository productRepository;
+
+  private ProductCatalogService productCatalogService;
+
+  private Product product;
+
+  @BeforeEach
+  void setUp() {
+    Clock clock = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+    productCatalogService = new ProductCatalogService(productRepository, new ObjectMapper(), 10,
+        Duration.ofSeconds(30), clock);
+    product = new Product(1L, "Product 1", new BigDecimal("10.00"), 50);
+    when(productRepository.findAll()).thenReturn(List.of(product));
+  }
+
+  @Test
+  @DisplayName("Given a built snapshot, when reading it again, then serve it without a query")
+  void givenBuiltSnapshot_whenReadingAgain_thenServeWithoutQuery() {
+    // Arrange
+    CatalogSnapshot first = productCatalogService.getSnapshot();
+
+    // Act
+    CatalogSnapshot second = productCatalogService.getSnapshot();
+
+    // Assert
+    assertSame(first, second);
+    assertEquals("[{\"id\":1,\"name\":\"Product 1\",\"price\":10.00,\"stock\":50}]",
+        new String(second.body(), StandardCharsets.UTF_8));
+    assertTrue(second.etag().startsWith("\"") && second.etag().endsWith("\""));
+    verify(productRepository, times(1)).findAll();
+  }
+
+  @Test
+  @DisplayName("Given a stock change above the threshold, when notified, then keep the snapshot")
+  void givenStockChangeAboveThreshold_whenNotified_thenKeepSnapshot() {
+    // Arrange
+    CatalogSnapshot first = productCatalogService.getSnapshot();
+    product.setStock(11);
+
+    // Act
+    boolean invalidated = productCatalogService.productChanged(product);
+
+    // Assert
+    assertFalse(invalidated);
+    assertSame(first, productCatalogService.getSnapshot());
+  }
+
+  @Test
+  @DisplayName("Given a stock change crossing the threshold, when notified, then rebuild")
+  void givenStockChangeCrossingThreshold_whenNotified_thenRebuild() {
+    // Arrange
+    CatalogSnapshot first = productCatalogService.getSnapshot();
+    product.setStock(10);
+
+    // Act
+    boolean invalidated = productCatalogService.productChanged(product);
+
+    // Assert
+    assertTrue(invalidated);
+    assertNotEquals(first.etag(), productCatalogService.getSnapshot().etag());
+    verify(productRepository, times(2)).findAll();
+  }
+
+  @Test
+  @DisplayName("Given a price change, when notified, then rebuild with a new ETag")
+  void givenPriceChange_whenNotified_thenRebuildWithNewEtag() {
+    // Arrange
+    CatalogSnapshot first = productCatalogService.getSnapshot();
+    product.setPrice(new BigDecimal("12.00"));
+
+    // Act
+    boolean invalidated = productCatalogService.productChanged(product);
+
+    // Assert
+    assertTrue(invalidated);
+    assertNotEquals(first.etag(), productCatalogService.getSnapshot().etag());
+  }
+
+  @Test
+  @DisplayName("Given an equal price with another scale, when notified, then keep the snapshot")
+  void givenEqualPriceWithOtherScale_whenNotified_thenKeepSnapshot() {
+    // Arrange
+    productCatalogService.getSnapshot();
+    product.setPrice(new BigDecimal("10.0"));
+
+    // Act
+    boolean invalidated = productCatalogService.productChanged(product);
+
+    // Assert
+    assertFalse(invalidated);
+  }
+}
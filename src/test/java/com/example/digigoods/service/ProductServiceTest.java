@@ -3,17 +3,21 @@ package com.example.digigoods.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyList;
-import static org.mockito.Mockito.times;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.example.digigoods.dto.CartLine;
 import com.example.digigoods.exception.InsufficientStockException;
 import com.example.digigoods.exception.ProductNotFoundException;
 import com.example.digigoods.model.Product;
 import com.example.digigoods.repository.ProductRepository;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -28,6 +32,9 @@ class ProductServiceTest {
   @Mock
   private ProductRepository productRepository;
 
+  @Mock
+  private ProductCatalogService productCatalogService;
+
   @InjectMocks
   private ProductService productService;
 
@@ -70,21 +77,67 @@ class ProductServiceTest {
         () -> productService.getProductsByIds(productIds));
   }
 
+  @Test
+  @DisplayName("Given repeated product IDs, when getting products by IDs, then return products")
+  void givenRepeatedProductIds_whenGettingProductsByIds_thenReturnProducts() {
+    // Arrange
+    List<Long> productIds = List.of(1L, 2L, 1L);
+    when(productRepository.findAllByIdIn(productIds)).thenReturn(List.of(product1, product2));
+
+    // Act
+    List<Product> actualProducts = productService.getProductsByIds(productIds);
+
+    // Assert
+    assertEquals(List.of(product1, product2), actualProducts);
+  }
+
+  @Test
+  @DisplayName("Given a cart, when getting its products, then return them in line order")
+  void givenCart_whenGettingProducts_thenReturnThemInLineOrder() {
+    // Arrange
+    Cart cart = Cart.of(List.of(2L), List.of(new CartLine(1L, 3)));
+    when(productRepository.findAllByIdIn(List.of(1L, 2L))).thenReturn(List.of(product2, product1));
+
+    // Act
+    List<Product> actualProducts = productService.getProducts(cart);
+
+    // Assert
+    assertEquals(List.of(product1, product2), actualProducts);
+  }
+
+  @Test
+  @DisplayName("Given a cart with missing products, when getting its products, "
+      + "then name every missing ID")
+  void givenCartWithMissingProducts_whenGettingProducts_thenNameEveryMissingId() {
+    // Arrange
+    Cart cart = Cart.ofProductIds(List.of(4L, 1L, 3L));
+    when(productRepository.findAllByIdIn(List.of(1L, 3L, 4L))).thenReturn(List.of(product1));
+
+    // Act & Assert
+    ProductNotFoundException exception = assertThrows(ProductNotFoundException.class,
+        () -> productService.getProducts(cart));
+    assertEquals("Products not found with IDs: [3, 4]", exception.getMessage());
+  }
+
   @Test
   @DisplayName("Given sufficient stock, when validating and updating stock, "
       + "then update stock successfully")
   void givenSufficientStock_whenValidatingAndUpdatingStock_thenUpdateStockSuccessfully() {
     // Arrange
-    List<Long> productIds = List.of(1L, 1L, 2L); // 2 of product1, 1 of product2
-    when(productRepository.findAllByIdIn(List.of(1L, 2L))).thenReturn(List.of(product1, product2));
+    List<Long> productIds = List.of(2L, 1L, 1L); // 2 of product1, 1 of product2
+    when(productRepository.decrementStock(new long[] {1L, 2L}, new int[] {2, 1}))
+        .thenReturn(new int[] {1, 1});
+    when(productRepository.findStockLevels(List.of(1L, 2L)))
+        .thenReturn(Map.of(1L, 3, 2L, 2));
 
     // Act
     productService.validateAndUpdateStock(productIds);
 
     // Assert
-    assertEquals(3, product1.getStock()); // 5 - 2 = 3
-    assertEquals(2, product2.getStock()); // 3 - 1 = 2
-    verify(productRepository, times(2)).save(any(Product.class));
+    verify(productRepository).decrementStock(new long[] {1L, 2L}, new int[] {2, 1});
+    verify(productRepository, never()).save(any(Product.class));
+    verify(productCatalogService).stockChanged(1L, 3);
+    verify(productCatalogService).stockChanged(2L, 2);
   }
 
   @Test
@@ -93,10 +146,28 @@ class ProductServiceTest {
   void givenInsufficientStock_whenValidatingAndUpdatingStock_thenThrowInsufficientStockException() {
     // Arrange
     List<Long> productIds = List.of(1L, 1L, 1L, 1L, 1L, 1L); // 6 of product1, but only 5 in stock
-    when(productRepository.findAllByIdIn(anyList())).thenReturn(List.of(product1));
+    when(productRepository.decrementStock(any(), any())).thenReturn(new int[] {0});
+    when(productRepository.findStockLevels(anyCollection())).thenReturn(Map.of(1L, 5));
 
     // Act & Assert
-    assertThrows(InsufficientStockException.class,
+    InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+        () -> productService.validateAndUpdateStock(productIds));
+    assertEquals("Insufficient stock for product 1. Requested: 6, Available: 5",
+        exception.getMessage());
+    verify(productCatalogService, never()).stockChanged(anyLong(), anyInt());
+  }
+
+  @Test
+  @DisplayName("Given a missing product, when validating and updating stock, "
+      + "then throw ProductNotFoundException")
+  void givenMissingProduct_whenValidatingAndUpdatingStock_thenThrowProductNotFoundException() {
+    // Arrange
+    List<Long> productIds = List.of(1L, 3L);
+    when(productRepository.decrementStock(any(), any())).thenReturn(new int[] {1, 0});
+    when(productRepository.findStockLevels(anyCollection())).thenReturn(Map.of(1L, 4));
+
+    // Act & Assert
+    assertThrows(ProductNotFoundException.class,
         () -> productService.validateAndUpdateStock(productIds));
   }
 }
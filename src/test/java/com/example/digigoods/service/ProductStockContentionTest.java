@@ -0,0 +1,97 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.ProductRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Contention tests for stock updates. Each purchase commits in its own transaction, so this class
+ * does not roll back and cleans up after itself instead.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductStockContentionTest {
+
+  private static final int BUYERS = 64;
+  private static final int INITIAL_STOCK = 2000;
+
+  @Autowired
+  private ProductService productService;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  private Product hotProduct;
+
+  @BeforeEach
+  void setUp() {
+    hotProduct = productRepository.save(
+        new Product(null, "Hot Product", new BigDecimal("10.00"), INITIAL_STOCK));
+  }
+
+  @AfterEach
+  void tearDown() {
+    productRepository.deleteById(hotProduct.getId());
+  }
+
+  @Test
+  @DisplayName("Given 64 concurrent buyers of one product, when buying until sold out, "
+      + "then sell exactly the stock")
+  void givenConcurrentBuyersOfOneProduct_whenBuyingUntilSoldOut_thenSellExactlyTheStock(
+      TestReporter testReporter) throws Exception {
+    // Arrange
+    ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Integer>> buyers = new ArrayList<>();
+    for (int i = 0; i < BUYERS; i++) {
+      buyers.add(executor.submit(() -> {
+        start.await();
+        int bought = 0;
+        while (true) {
+          try {
+            productService.validateAndUpdateStock(List.of(hotProduct.getId()));
+            bought++;
+          } catch (InsufficientStockException e) {
+            return bought;
+          }
+        }
+      }));
+    }
+
+    // Act
+    long startedAt = System.nanoTime();
+    start.countDown();
+    int sold = 0;
+    for (Future<Integer> buyer : buyers) {
+      sold += buyer.get(60, TimeUnit.SECONDS);
+    }
+    final long elapsedNanos = System.nanoTime() - startedAt;
+    executor.shutdown();
+
+    // Assert
+    assertEquals(INITIAL_STOCK, sold);
+    assertEquals(0, productRepository.findById(hotProduct.getId()).orElseThrow().getStock());
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    testReporter.publishEntry("purchasesPerSecond",
+        String.valueOf(sold * 1_000_000_000L / Math.max(elapsedNanos, 1)));
+  }
+}